@@ -0,0 +1,39 @@
+package com.narektm.exchangeratesapi.cache;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public final class RateFixtures {
+
+    private RateFixtures() {
+    }
+
+    /**
+     * Returns the first ISO 4217 codes in alphabetical order, as codes the parser does not know are rejected.
+     */
+    public static String[] currencyCodes(int currencyCount) {
+        return Currency.getAvailableCurrencies().stream()
+                .map(Currency::getCurrencyCode)
+                .sorted()
+                .limit(currencyCount)
+                .toArray(String[]::new);
+    }
+
+    public static Map<String, Map<String, BigDecimal>> ratesByBase(String[] codes) {
+        SplittableRandom random = new SplittableRandom(42);
+        Map<String, Map<String, BigDecimal>> ratesByBase = new HashMap<>();
+        for (String baseCode : codes) {
+            Map<String, BigDecimal> rates = new HashMap<>();
+            for (String quoteCode : codes) {
+                rates.put(quoteCode, BigDecimal.valueOf(random.nextDouble(0.0001, 20000)).setScale(6, RoundingMode.HALF_EVEN));
+            }
+            ratesByBase.put(baseCode, rates);
+        }
+
+        return ratesByBase;
+    }
+}
@@ -0,0 +1,72 @@
+package com.narektm.exchangeratesapi.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares pair lookups in {@link RateMatrix} against the map-of-maps layout it replaces.
+ * Run with {@code ./gradlew jmh}; see {@link RateMatrixFootprint} for the heap footprint comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateMatrixBenchmark {
+
+    @Param({"30", "170"})
+    private int currencyCount;
+
+    private String[] codes;
+    private Map<String, Map<String, BigDecimal>> ratesByBase;
+    private RateMatrix rateMatrix;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        codes = RateFixtures.currencyCodes(currencyCount);
+        ratesByBase = RateFixtures.ratesByBase(codes);
+        rateMatrix = RateMatrix.of(ratesByBase);
+    }
+
+    @Benchmark
+    public BigDecimal mapOfMapsLookup() {
+        int index = nextIndex();
+
+        return ratesByBase.get(codes[index]).get(codes[codes.length - 1 - index]);
+    }
+
+    @Benchmark
+    public double rateMatrixLookup() {
+        int index = nextIndex();
+
+        return rateMatrix.rate(codes[index], codes[codes.length - 1 - index]);
+    }
+
+    @Benchmark
+    public double rateMatrixIndexedLookup() {
+        int index = nextIndex();
+
+        return rateMatrix.rate(index, codes.length - 1 - index);
+    }
+
+    private int nextIndex() {
+        cursor = cursor + 1 == codes.length ? 0 : cursor + 1;
+
+        return cursor;
+    }
+}
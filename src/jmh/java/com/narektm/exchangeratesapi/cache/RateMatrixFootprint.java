@@ -0,0 +1,33 @@
+package com.narektm.exchangeratesapi.cache;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Prints the retained heap size of {@link RateMatrix} and of the equivalent map-of-maps, in total and per rate.
+ * Run with {@code ./gradlew jmhJar} and then
+ * {@code java -cp build/libs/exchange-rates-api-0.0.1-SNAPSHOT-jmh.jar com.narektm.exchangeratesapi.cache.RateMatrixFootprint}.
+ */
+public class RateMatrixFootprint {
+
+    public static void main(String[] args) {
+        for (int currencyCount : new int[]{30, 170}) {
+            Map<String, Map<String, BigDecimal>> ratesByBase =
+                    RateFixtures.ratesByBase(RateFixtures.currencyCodes(currencyCount));
+            RateMatrix rateMatrix = RateMatrix.of(ratesByBase);
+            long mapOfMapsSize = GraphLayout.parseInstance(ratesByBase).totalSize();
+            long rateMatrixSize = GraphLayout.parseInstance(rateMatrix).totalSize();
+            int rateCount = currencyCount * currencyCount;
+
+            System.out.printf("%d currencies: map-of-maps %,d bytes (%.1f per rate), rate matrix %,d bytes "
+                            + "(%.1f per rate)%n",
+                    currencyCount,
+                    mapOfMapsSize,
+                    (double) mapOfMapsSize / rateCount,
+                    rateMatrixSize,
+                    (double) rateMatrixSize / rateCount);
+        }
+    }
+}
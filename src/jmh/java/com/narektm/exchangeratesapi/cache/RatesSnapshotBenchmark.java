@@ -0,0 +1,81 @@
+package com.narektm.exchangeratesapi.cache;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cached reads served from a {@link RatesSnapshot} and the publish of one updated currency through
+ * {@link RatesSnapshotFactory}. The snapshot is built directly, so the benchmark does not depend on the
+ * collaborators of the service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RatesSnapshotBenchmark {
+
+    @Param({"30", "170"})
+    private int currencyCount;
+
+    private String[] codes;
+    private List<CurrencyDetailsDto> currencyDetailsDtos;
+    private RatesSnapshotFactory ratesSnapshotFactory;
+    private RatesSnapshot ratesSnapshot;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        codes = RateFixtures.currencyCodes(currencyCount);
+        currencyDetailsDtos = RateFixtures.ratesByBase(codes).entrySet().stream()
+                .map(ratesOfBase -> new CurrencyDetailsDto(ratesOfBase.getKey(),
+                        ratesOfBase.getValue(),
+                        LocalDateTime.now(),
+                        LocalDateTime.now()))
+                .toList();
+        ratesSnapshotFactory =
+                new RatesSnapshotFactory(new CurrencyResponseEncoder(JsonMapper.builder().findAndAddModules().build()));
+        ratesSnapshot = ratesSnapshotFactory.merge(ratesSnapshotFactory.empty(), currencyDetailsDtos);
+    }
+
+    @Benchmark
+    public CurrencyDetailsDto getCurrency() {
+        return ratesSnapshot.getCurrency(codes[nextIndex()]);
+    }
+
+    @Benchmark
+    public EncodedResponse getEncodedCurrency() {
+        return ratesSnapshot.getEncodedCurrency(codes[nextIndex()]);
+    }
+
+    /**
+     * The cost of publishing the refreshed rates of a single currency, as a tiered refresh does.
+     */
+    @Benchmark
+    public RatesSnapshot mergeOneCurrency() {
+        return ratesSnapshotFactory.merge(ratesSnapshot, List.of(currencyDetailsDtos.get(nextIndex())));
+    }
+
+    private int nextIndex() {
+        cursor = cursor + 1 == codes.length ? 0 : cursor + 1;
+
+        return cursor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.narektm.exchangeratesapi.cache.RateFixtures;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CurrencyConverterBenchmark {
+
+    @Param({"30", "170"})
+    private int currencyCount;
+
+    private final CurrencyConverter currencyConverter = new CurrencyConverter();
+    private CurrencyEntity currencyEntity;
+
+    @Setup
+    public void setUp() {
+        String[] codes = RateFixtures.currencyCodes(currencyCount);
+
+        currencyEntity = new CurrencyEntity();
+        currencyEntity.setCode(codes[0]);
+        currencyEntity.setRates(RateFixtures.ratesByBase(codes).get(codes[0]));
+        currencyEntity.setCreatedOn(LocalDateTime.now());
+        currencyEntity.setUpdatedOn(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public CurrencyDetailsDto toCurrencyDetailsDto() {
+        return currencyConverter.toCurrencyDetailsDto(currencyEntity);
+    }
+}
@@ -0,0 +1,79 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.cache.RateFixtures;
+import com.narektm.exchangeratesapi.config.ExternalExchangeRatesApiProperties;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing a {@link CurrencyDetailsDto} the way the API serves it and reading an
+ * {@link ExchangeRatesResponse} the way the external API returns it, both by Jackson data binding and by
+ * the streaming {@link ExchangeRatesResponseParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"30", "170"})
+    private int currencyCount;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final ExchangeRatesResponseParser exchangeRatesResponseParser =
+            new ExchangeRatesResponseParser(objectMapper, new ExternalExchangeRatesApiProperties());
+    private CurrencyDetailsDto currencyDetailsDto;
+    private byte[] exchangeRatesResponseJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        // the streaming parser skips codes it does not know, so the fixture uses real ones
+        String[] codes = Currency.getAvailableCurrencies().stream()
+                .map(Currency::getCurrencyCode)
+                .sorted()
+                .limit(currencyCount)
+                .toArray(String[]::new);
+        Map<String, BigDecimal> rates = RateFixtures.ratesByBase(codes).get(codes[0]);
+
+        currencyDetailsDto = new CurrencyDetailsDto(codes[0], rates, LocalDateTime.now(), LocalDateTime.now());
+        exchangeRatesResponseJson = objectMapper.writeValueAsBytes(new ExchangeRatesResponse(codes[0], rates));
+    }
+
+    @Benchmark
+    public byte[] serializeCurrencyDetailsDto() throws IOException {
+        return objectMapper.writeValueAsBytes(currencyDetailsDto);
+    }
+
+    @Benchmark
+    public ExchangeRatesResponse deserializeExchangeRatesResponse() throws IOException {
+        return objectMapper.readValue(exchangeRatesResponseJson, ExchangeRatesResponse.class);
+    }
+
+    @Benchmark
+    public ExchangeRatesResponse parseExchangeRatesResponse() throws IOException {
+        return exchangeRatesResponseParser.parse(new ByteArrayInputStream(exchangeRatesResponseJson));
+    }
+}
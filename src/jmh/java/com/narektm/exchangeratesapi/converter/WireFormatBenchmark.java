@@ -0,0 +1,62 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.cache.RateFixtures;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding a {@link CurrencyDetailsDto} as JSON with encoding it as compact CBOR. The payload sizes
+ * are printed once per fork, as they do not change between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"170"})
+    private int currencyCount;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private CurrencyDetailsDto currencyDetailsDto;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] codes = RateFixtures.currencyCodes(currencyCount);
+        currencyDetailsDto = new CurrencyDetailsDto(codes[0],
+                RateFixtures.ratesByBase(codes).get(codes[0]),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+
+        System.out.printf("%n%d rates: json %d bytes, compact cbor %d bytes%n", currencyDetailsDto.rates().size(),
+                encodeJson().length, encodeCompactCbor().length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(currencyDetailsDto);
+    }
+
+    @Benchmark
+    public byte[] encodeCompactCbor() {
+        return CompactCbor.encode(currencyDetailsDto);
+    }
+}
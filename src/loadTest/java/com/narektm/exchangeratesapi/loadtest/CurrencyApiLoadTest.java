@@ -0,0 +1,192 @@
+package com.narektm.exchangeratesapi.loadtest;
+
+import com.narektm.exchangeratesapi.loadtest.LatencyRecorder.Operation;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import com.narektm.exchangeratesapi.testutils.IntegrationTestUtil;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Drives mixed read, add and refresh traffic at the API, backed by Postgres and the {@link UpstreamStandIn},
+ * and prints the latency percentiles and throughput of each operation. Run with {@code ./gradlew loadTest}.
+ * <p>
+ * The workers run a closed loop, so a slow response delays the next request of the same worker and the
+ * percentiles understate the latency an open-loop client would see during a stall.
+ * <p>
+ * The currencies are real ISO 4217 codes, as the external API answers are checked against the known codes. Once
+ * every known code has been added, further adds are rejected as duplicates and reported as failed.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT)
+@Testcontainers
+class CurrencyApiLoadTest {
+
+    private static final String API_V_1_0_CURRENCIES = "/api/v1.0/currencies";
+    private static final String CURRENCY_CODE = "currencyCode";
+    private static final long REFRESH_INTERVAL_SECONDS = 10;
+    private static final int MAX_SEED_ATTEMPTS = 10;
+    private static final List<String> CURRENCY_CODES = Currency.getAvailableCurrencies().stream()
+            .map(Currency::getCurrencyCode)
+            .sorted()
+            .toList();
+
+    private static final LoadTestSettings SETTINGS = LoadTestSettings.fromSystemProperties();
+    private static final UpstreamStandIn UPSTREAM = new UpstreamStandIn(SETTINGS);
+
+    @Container
+    @ServiceConnection
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("load_test_db")
+            .withUsername("test_user")
+            .withPassword("test_password");
+
+    private final AtomicInteger nextCurrencyIndex = new AtomicInteger();
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private CurrencyService currencyService;
+
+    @DynamicPropertySource
+    static void setUpProperties(DynamicPropertyRegistry registry) {
+        UPSTREAM.start();
+        registry.add("exchange.rates.external-api.base-uri", UPSTREAM::baseUri);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        UPSTREAM.stop();
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        seedCurrencies();
+
+        run(SETTINGS.warmUp().toNanos());
+        latencyRecorder.reset();
+        long elapsedNanos = run(SETTINGS.duration().toNanos());
+
+        System.out.printf("%nLoad test: %d workers for %ds, upstream median latency %dms, error rate %.2f%n%s%n",
+                SETTINGS.concurrency(),
+                SETTINGS.duration().toSeconds(),
+                SETTINGS.upstreamMedianLatencyMillis(),
+                SETTINGS.upstreamErrorRate(),
+                latencyRecorder.report(elapsedNanos));
+
+        if (SETTINGS.maxReadP99Micros() > 0) {
+            assertThat(latencyRecorder.histogram(Operation.GET_ONE).getValueAtPercentile(99))
+                    .as("p99 of GET %s/{currencyCode} in microseconds", API_V_1_0_CURRENCIES)
+                    .isLessThanOrEqualTo(SETTINGS.maxReadP99Micros());
+        }
+    }
+
+    private void seedCurrencies() {
+        assertThat(SETTINGS.seededCurrencies())
+                .as("seeded currencies")
+                .isBetween(1, CURRENCY_CODES.size());
+
+        while (nextCurrencyIndex.get() < SETTINGS.seededCurrencies()) {
+            seedCurrency(currencyCode(nextCurrencyIndex.get()));
+            nextCurrencyIndex.incrementAndGet();
+        }
+    }
+
+    /**
+     * Retries a few times, as the stand-in fails some of the requests on purpose, but fails the run if the
+     * currency cannot be added at all.
+     */
+    private void seedCurrency(String currencyCode) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                IntegrationTestUtil.post(port, API_V_1_0_CURRENCIES, Map.of(CURRENCY_CODE, currencyCode));
+                return;
+            } catch (Exception e) {
+                if (attempt == MAX_SEED_ATTEMPTS) {
+                    throw new IllegalStateException("Could not seed currency %s after %d attempts"
+                            .formatted(currencyCode, attempt), e);
+                }
+            }
+        }
+    }
+
+    private long run(long durationNanos) throws Exception {
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + durationNanos;
+        List<Future<?>> futures = new ArrayList<>();
+
+        try (ExecutorService executorService = Executors.newFixedThreadPool(SETTINGS.concurrency() + 1)) {
+            for (int i = 0; i < SETTINGS.concurrency(); i++) {
+                futures.add(executorService.submit(() -> drive(deadlineNanos)));
+            }
+            futures.add(executorService.submit(() -> refreshPeriodically(deadlineNanos)));
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        return System.nanoTime() - startNanos;
+    }
+
+    private void drive(long deadlineNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadlineNanos) {
+            int dice = random.nextInt(1000);
+            if (dice < 890) {
+                execute(Operation.GET_ONE, () -> IntegrationTestUtil.getCurrency(port,
+                        API_V_1_0_CURRENCIES + "/" + currencyCode(random.nextInt(SETTINGS.seededCurrencies()))));
+            } else if (dice < 990) {
+                execute(Operation.GET_ALL, () -> IntegrationTestUtil.getAllCurrencies(port, API_V_1_0_CURRENCIES));
+            } else {
+                execute(Operation.ADD, () -> IntegrationTestUtil.post(port, API_V_1_0_CURRENCIES,
+                        Map.of(CURRENCY_CODE, currencyCode(nextCurrencyIndex.getAndIncrement()))));
+            }
+        }
+    }
+
+    private void refreshPeriodically(long deadlineNanos) throws InterruptedException {
+        while (System.nanoTime() + TimeUnit.SECONDS.toNanos(REFRESH_INTERVAL_SECONDS) < deadlineNanos) {
+            TimeUnit.SECONDS.sleep(REFRESH_INTERVAL_SECONDS);
+            execute(Operation.REFRESH, currencyService::updateExchangeRates);
+        }
+    }
+
+    private void execute(Operation operation, Runnable request) {
+        long startNanos = System.nanoTime();
+        boolean failed = false;
+        try {
+            request.run();
+        } catch (Exception e) {
+            failed = true;
+        }
+        latencyRecorder.record(operation, startNanos, failed);
+    }
+
+    private static String currencyCode(int index) {
+        return CURRENCY_CODES.get(index % CURRENCY_CODES.size());
+    }
+}
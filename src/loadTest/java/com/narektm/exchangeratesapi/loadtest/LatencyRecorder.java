@@ -0,0 +1,67 @@
+package com.narektm.exchangeratesapi.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency of every operation of the load test in microseconds, one histogram per operation.
+ */
+class LatencyRecorder {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long startNanos, boolean failed) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histograms.get(operation).recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+        if (failed) {
+            errors.get(operation).increment();
+        }
+    }
+
+    void reset() {
+        histograms.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    Histogram histogram(Operation operation) {
+        return histograms.get(operation);
+    }
+
+    String report(long elapsedNanos) {
+        double elapsedSeconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder("%-10s %10s %10s %10s %10s %10s %10s %8s%n"
+                .formatted("operation", "count", "ops/s", "p50 us", "p99 us", "p999 us", "max us", "errors"));
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            report.append("%-10s %10d %10.1f %10d %10d %10d %10d %8d%n".formatted(operation,
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / elapsedSeconds,
+                    histogram.getValueAtPercentile(50),
+                    histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9),
+                    histogram.getMaxValue(),
+                    errors.get(operation).sum()));
+        }
+
+        return report.toString();
+    }
+
+    enum Operation {
+        GET_ONE, GET_ALL, ADD, REFRESH
+    }
+}
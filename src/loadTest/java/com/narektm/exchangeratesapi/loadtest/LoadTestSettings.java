@@ -0,0 +1,27 @@
+package com.narektm.exchangeratesapi.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Settings of a load test run, read from {@code loadtest.*} system properties. The Gradle {@code loadTest} task
+ * passes on the project properties of the same name, e.g. {@code ./gradlew loadTest -Ploadtest.concurrency=64}.
+ */
+record LoadTestSettings(Duration warmUp,
+                        Duration duration,
+                        int concurrency,
+                        int seededCurrencies,
+                        long upstreamMedianLatencyMillis,
+                        double upstreamErrorRate,
+                        long maxReadP99Micros) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Duration.ofSeconds(Long.getLong("loadtest.warm-up-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60)),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Integer.getInteger("loadtest.seeded-currencies", 30),
+                Long.getLong("loadtest.upstream-median-latency-millis", 80),
+                Double.parseDouble(System.getProperty("loadtest.upstream-error-rate", "0.02")),
+                Long.getLong("loadtest.max-read-p99-micros", 0));
+    }
+}
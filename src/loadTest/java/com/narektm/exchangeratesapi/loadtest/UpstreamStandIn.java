@@ -0,0 +1,79 @@
+package com.narektm.exchangeratesapi.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformerV2;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * WireMock stand-in for the latest rates endpoint of the external API. It answers any base currency with
+ * the same quote rates after a log-normal delay, and fails the given share of requests with 500. The base is
+ * echoed from the request, so it must be a currency code the parser knows.
+ */
+class UpstreamStandIn {
+
+    private static final String LATEST = "/latest";
+    private static final String BODY_TEMPLATE = """
+            {"base": "{{request.query.base}}", "rates": {"USD": 1.0825, "EUR": 0.9238, "GBP": 0.7846,
+            "JPY": 162.31, "CHF": 0.9411, "AMD": 420.57, "CAD": 1.4712, "AUD": 1.6398}}""";
+
+    private final WireMockServer wireMockServer;
+    private final long medianLatencyMillis;
+
+    UpstreamStandIn(LoadTestSettings settings) {
+        medianLatencyMillis = settings.upstreamMedianLatencyMillis();
+        wireMockServer = new WireMockServer(WireMockConfiguration.wireMockConfig()
+                .dynamicPort()
+                .containerThreads(settings.concurrency() * 2)
+                .extensions(new ErrorInjection(settings.upstreamErrorRate())));
+    }
+
+    void start() {
+        wireMockServer.start();
+        wireMockServer.stubFor(get(urlPathEqualTo(LATEST))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withHeader(CONTENT_TYPE, APPLICATION_JSON_VALUE)
+                        .withBody(BODY_TEMPLATE)
+                        .withTransformers("response-template")
+                        .withLogNormalRandomDelay(medianLatencyMillis, 0.3)));
+    }
+
+    String baseUri() {
+        return "http://localhost:" + wireMockServer.port();
+    }
+
+    void stop() {
+        wireMockServer.stop();
+    }
+
+    private record ErrorInjection(double errorRate) implements ResponseDefinitionTransformerV2 {
+
+        @Override
+        public ResponseDefinition transform(ServeEvent serveEvent) {
+            if (ThreadLocalRandom.current().nextDouble() < errorRate) {
+                return ResponseDefinitionBuilder.responseDefinition()
+                        .withStatus(500)
+                        .withBody("Injected upstream error")
+                        .build();
+            }
+
+            return serveEvent.getResponseDefinition();
+        }
+
+        @Override
+        public String getName() {
+            return "error-injection";
+        }
+    }
+}
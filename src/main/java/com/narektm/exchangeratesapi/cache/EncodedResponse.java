@@ -0,0 +1,28 @@
+package com.narektm.exchangeratesapi.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Pre-encoded response body together with its gzip variant, its compact CBOR variant and strong ETag.
+ * The CBOR variant is {@code null} if the response cannot be encoded that way.
+ */
+public record EncodedResponse(byte[] json, byte[] gzippedJson, byte[] cbor, String eTag) {
+
+    public static EncodedResponse of(byte[] json, byte[] cbor, String eTag) {
+        return new EncodedResponse(json, gzip(json), cbor, eTag);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+}
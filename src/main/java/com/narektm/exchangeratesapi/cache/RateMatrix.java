@@ -0,0 +1,310 @@
+package com.narektm.exchangeratesapi.cache;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable, index-addressed store of exchange rates.
+ * <p>
+ * Every currency code is interned to a small int id, and the rates of each base currency are kept in a dense row
+ * indexed by the id of the quote currency. Each rate is stored once, exactly, as an unscaled {@code long} and its
+ * scale, and a {@code double} is derived from them when asked for. The few rates with more than 18 significant
+ * digits are kept as {@link BigDecimal}s on the side of their row.
+ * <p>
+ * The ids are never reassigned, new codes get the next ones, so merging the rates of a few currencies copies
+ * only the references of the other rows and builds just the changed ones. A row built before a code was added is
+ * shorter than the matrix and misses the rates of the newer codes.
+ */
+public final class RateMatrix {
+
+    private static final int MAX_UNSCALED_PRECISION = 18;
+    private static final byte MISSING = Byte.MIN_VALUE;
+    private static final byte WIDE = Byte.MIN_VALUE + 1;
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private static final RateMatrix EMPTY = new RateMatrix(new String[0], Map.of(), new Row[0]);
+
+    private final String[] codes;
+    private final Map<String, Integer> indexes;
+    private final Row[] rows;
+
+    private RateMatrix(String[] codes, Map<String, Integer> indexes, Row[] rows) {
+        this.codes = codes;
+        this.indexes = indexes;
+        this.rows = rows;
+    }
+
+    public static RateMatrix empty() {
+        return EMPTY;
+    }
+
+    public static RateMatrix of(Map<String, ? extends Map<String, BigDecimal>> ratesByBase) {
+        return EMPTY.merge(ratesByBase);
+    }
+
+    /**
+     * Returns a new matrix with the rows of the given base currencies replaced. The other rows are shared with
+     * this matrix.
+     */
+    public RateMatrix merge(Map<String, ? extends Map<String, BigDecimal>> ratesByBase) {
+        // sorted, so the ids of new codes do not depend on the iteration order of the given maps
+        Set<String> newCodes = new TreeSet<>();
+        ratesByBase.forEach((baseCode, baseRates) -> {
+            newCodes.add(baseCode);
+            newCodes.addAll(baseRates.keySet());
+        });
+        newCodes.removeAll(indexes.keySet());
+
+        String[] mergedCodes = Arrays.copyOf(codes, codes.length + newCodes.size());
+        Map<String, Integer> mergedIndexes = new HashMap<>(indexes);
+        int index = codes.length;
+        for (String newCode : newCodes) {
+            mergedCodes[index] = newCode;
+            mergedIndexes.put(newCode, index++);
+        }
+
+        Row[] mergedRows = Arrays.copyOf(rows, mergedCodes.length);
+        ratesByBase.forEach((baseCode, baseRates) -> mergedRows[mergedIndexes.get(baseCode)] =
+                Row.of(baseRates, mergedIndexes, mergedCodes.length));
+
+        return new RateMatrix(mergedCodes, Map.copyOf(mergedIndexes), mergedRows);
+    }
+
+    /**
+     * Returns the id of the currency code, or {@code -1} if the code is unknown.
+     */
+    public int indexOf(String currencyCode) {
+        Integer index = indexes.get(currencyCode);
+        return index == null ? -1 : index;
+    }
+
+    public String code(int index) {
+        return codes[index];
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Returns whether the matrix holds the rates of the currency as a base currency.
+     */
+    public boolean containsBase(int index) {
+        return rows[index] != null && rows[index].size > 0;
+    }
+
+    /**
+     * Returns the rate of the pair as the nearest {@code double}, or {@link Double#NaN} if it is unknown.
+     */
+    public double rate(int baseIndex, int quoteIndex) {
+        Row row = rows[baseIndex];
+        if (row == null || !row.contains(quoteIndex)) {
+            return Double.NaN;
+        }
+        byte scale = row.scales[quoteIndex];
+        if (scale == WIDE) {
+            return row.wideRates.get(quoteIndex).doubleValue();
+        }
+        long unscaledRate = row.unscaledRates[quoteIndex];
+        // both operands are exact doubles here, so the single division is correctly rounded
+        if (scale >= 0 && scale < POWERS_OF_TEN.length && Math.abs(unscaledRate) < MAX_EXACT_DOUBLE) {
+            return unscaledRate / POWERS_OF_TEN[scale];
+        }
+
+        return BigDecimal.valueOf(unscaledRate, scale).doubleValue();
+    }
+
+    /**
+     * Returns the rate of the pair, or {@link Double#NaN} if it is unknown.
+     */
+    public double rate(String baseCurrencyCode, String quoteCurrencyCode) {
+        int baseIndex = indexOf(baseCurrencyCode);
+        int quoteIndex = indexOf(quoteCurrencyCode);
+        if (baseIndex < 0 || quoteIndex < 0) {
+            return Double.NaN;
+        }
+
+        return rate(baseIndex, quoteIndex);
+    }
+
+    /**
+     * Returns the rate of the pair exactly as it was stored, or {@code null} if it is unknown.
+     */
+    public BigDecimal exactRate(int baseIndex, int quoteIndex) {
+        Row row = rows[baseIndex];
+        if (row == null || !row.contains(quoteIndex)) {
+            return null;
+        }
+        byte scale = row.scales[quoteIndex];
+
+        return scale == WIDE
+                ? row.wideRates.get(quoteIndex)
+                : BigDecimal.valueOf(row.unscaledRates[quoteIndex], scale);
+    }
+
+    /**
+     * Returns the rate of the pair exactly as it was stored, or {@code null} if it is unknown.
+     */
+    public BigDecimal exactRate(String baseCurrencyCode, String quoteCurrencyCode) {
+        int baseIndex = indexOf(baseCurrencyCode);
+        int quoteIndex = indexOf(quoteCurrencyCode);
+        if (baseIndex < 0 || quoteIndex < 0) {
+            return null;
+        }
+
+        return exactRate(baseIndex, quoteIndex);
+    }
+
+    /**
+     * Returns a read-only map view of the rates of the base currency, backed by this matrix.
+     */
+    public Map<String, BigDecimal> rates(int baseIndex) {
+        return new RateRow(baseIndex);
+    }
+
+    /**
+     * The rates of one base currency. A missing rate is marked by its scale, so a rate costs 9 bytes.
+     */
+    private static final class Row {
+
+        private final long[] unscaledRates;
+        private final byte[] scales;
+        private final Map<Integer, BigDecimal> wideRates;
+        private final int size;
+
+        private Row(long[] unscaledRates, byte[] scales, Map<Integer, BigDecimal> wideRates, int size) {
+            this.unscaledRates = unscaledRates;
+            this.scales = scales;
+            this.wideRates = wideRates;
+            this.size = size;
+        }
+
+        private static Row of(Map<String, BigDecimal> rates, Map<String, Integer> indexes, int length) {
+            long[] unscaledRates = new long[length];
+            byte[] scales = new byte[length];
+            Arrays.fill(scales, MISSING);
+            Map<Integer, BigDecimal> wideRates = new HashMap<>();
+            rates.forEach((quoteCode, rate) -> {
+                int quoteIndex = indexes.get(quoteCode);
+                if (fitsUnscaled(rate)) {
+                    unscaledRates[quoteIndex] = rate.unscaledValue().longValueExact();
+                    scales[quoteIndex] = (byte) rate.scale();
+                } else {
+                    scales[quoteIndex] = WIDE;
+                    wideRates.put(quoteIndex, rate);
+                }
+            });
+
+            return new Row(unscaledRates, scales, Map.copyOf(wideRates), rates.size());
+        }
+
+        private boolean contains(int quoteIndex) {
+            return quoteIndex < scales.length && scales[quoteIndex] != MISSING;
+        }
+
+        // the two lowest scales mark missing and wide rates
+        private static boolean fitsUnscaled(BigDecimal rate) {
+            return rate.precision() <= MAX_UNSCALED_PRECISION
+                    && rate.scale() > WIDE
+                    && rate.scale() <= Byte.MAX_VALUE;
+        }
+    }
+
+    private final class RateRow extends AbstractMap<String, BigDecimal> {
+
+        private final int baseIndex;
+
+        private RateRow(int baseIndex) {
+            this.baseIndex = baseIndex;
+        }
+
+        @Override
+        public BigDecimal get(Object key) {
+            int quoteIndex = key instanceof String currencyCode ? indexOf(currencyCode) : -1;
+
+            return quoteIndex < 0 ? null : exactRate(baseIndex, quoteIndex);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return rows[baseIndex] == null ? 0 : rows[baseIndex].size;
+        }
+
+        @Override
+        public Set<Entry<String, BigDecimal>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, BigDecimal>> iterator() {
+                    return new RateRowIterator(baseIndex);
+                }
+
+                @Override
+                public int size() {
+                    return RateRow.this.size();
+                }
+            };
+        }
+    }
+
+    private final class RateRowIterator implements Iterator<Map.Entry<String, BigDecimal>> {
+
+        private final int baseIndex;
+        private final Row row;
+        private int quoteIndex;
+
+        private RateRowIterator(int baseIndex) {
+            this.baseIndex = baseIndex;
+            this.row = rows[baseIndex];
+            this.quoteIndex = nextQuoteIndex(0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return row != null && quoteIndex < row.scales.length;
+        }
+
+        @Override
+        public Map.Entry<String, BigDecimal> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, BigDecimal> entry = Map.entry(codes[quoteIndex], exactRate(baseIndex, quoteIndex));
+            quoteIndex = nextQuoteIndex(quoteIndex + 1);
+
+            return entry;
+        }
+
+        private int nextQuoteIndex(int from) {
+            if (row == null) {
+                return from;
+            }
+            int index = from;
+            while (index < row.scales.length && row.scales[index] == MISSING) {
+                index++;
+            }
+
+            return index;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.narektm.exchangeratesapi.cache;
+
+import org.springframework.http.MediaType;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Formats the whole rate matrix can be exported in. Every format writes row by row straight from the matrix
+ * into a buffered output stream, so the memory used while exporting does not grow with the matrix.
+ */
+public enum RateMatrixExportFormat {
+
+    /**
+     * A {@code base,quote,rate} header followed by one line per known rate.
+     */
+    CSV(MediaType.parseMediaType("text/csv")) {
+        @Override
+        public void write(RateMatrix rateMatrix, OutputStream outputStream) throws IOException {
+            Writer writer = newWriter(outputStream);
+            writer.write("base,quote,rate\n");
+            for (int baseIndex = 0; baseIndex < rateMatrix.size(); baseIndex++) {
+                if (!rateMatrix.containsBase(baseIndex)) {
+                    continue;
+                }
+                for (int quoteIndex = 0; quoteIndex < rateMatrix.size(); quoteIndex++) {
+                    BigDecimal rate = rateMatrix.exactRate(baseIndex, quoteIndex);
+                    if (rate == null) {
+                        continue;
+                    }
+                    writer.write(rateMatrix.code(baseIndex));
+                    writer.write(',');
+                    writer.write(rateMatrix.code(quoteIndex));
+                    writer.write(',');
+                    writer.write(rate.toPlainString());
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        }
+    },
+
+    /**
+     * One {@code {"base":"USD","rates":{"EUR":0.92,...}}} object per line.
+     */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")) {
+        @Override
+        public void write(RateMatrix rateMatrix, OutputStream outputStream) throws IOException {
+            Writer writer = newWriter(outputStream);
+            for (int baseIndex = 0; baseIndex < rateMatrix.size(); baseIndex++) {
+                if (!rateMatrix.containsBase(baseIndex)) {
+                    continue;
+                }
+                writer.write("{\"base\":\"");
+                writer.write(rateMatrix.code(baseIndex));
+                writer.write("\",\"rates\":{");
+                boolean first = true;
+                for (int quoteIndex = 0; quoteIndex < rateMatrix.size(); quoteIndex++) {
+                    BigDecimal rate = rateMatrix.exactRate(baseIndex, quoteIndex);
+                    if (rate == null) {
+                        continue;
+                    }
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    first = false;
+                    writer.write('"');
+                    writer.write(rateMatrix.code(quoteIndex));
+                    writer.write("\":");
+                    writer.write(rate.toPlainString());
+                }
+                writer.write("}}\n");
+            }
+            writer.flush();
+        }
+    },
+
+    /**
+     * Big-endian layout: the number of codes {@code n}, the {@code n} codes each as its length in one unsigned
+     * byte followed by its ASCII bytes, the number of bases, then per base its index into the codes followed by
+     * {@code n} doubles, {@code NaN} marking a missing rate. The codes are length-prefixed, as extra currency
+     * codes need not have 3 letters.
+     */
+    BINARY(MediaType.APPLICATION_OCTET_STREAM) {
+        @Override
+        public void write(RateMatrix rateMatrix, OutputStream outputStream) throws IOException {
+            DataOutputStream dataOutput = new DataOutputStream(newBufferedStream(outputStream));
+            int size = rateMatrix.size();
+            dataOutput.writeInt(size);
+            for (int index = 0; index < size; index++) {
+                byte[] code = toAsciiCode(rateMatrix.code(index));
+                dataOutput.writeByte(code.length);
+                dataOutput.write(code);
+            }
+            int baseCount = 0;
+            for (int baseIndex = 0; baseIndex < size; baseIndex++) {
+                if (rateMatrix.containsBase(baseIndex)) {
+                    baseCount++;
+                }
+            }
+            dataOutput.writeInt(baseCount);
+            for (int baseIndex = 0; baseIndex < size; baseIndex++) {
+                if (!rateMatrix.containsBase(baseIndex)) {
+                    continue;
+                }
+                dataOutput.writeInt(baseIndex);
+                for (int quoteIndex = 0; quoteIndex < size; quoteIndex++) {
+                    dataOutput.writeDouble(rateMatrix.rate(baseIndex, quoteIndex));
+                }
+            }
+            dataOutput.flush();
+        }
+    };
+
+    private static final int MAX_CODE_LENGTH = 255;
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final MediaType mediaType;
+
+    RateMatrixExportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Writes the matrix into the stream. The stream is flushed but not closed.
+     */
+    public abstract void write(RateMatrix rateMatrix, OutputStream outputStream) throws IOException;
+
+    public static Optional<RateMatrixExportFormat> of(String name) {
+        return Arrays.stream(values())
+                .filter(format -> format.name().equals(name.toUpperCase(Locale.ROOT)))
+                .findFirst();
+    }
+
+    private static Writer newWriter(OutputStream outputStream) {
+        return new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static OutputStream newBufferedStream(OutputStream outputStream) {
+        return new BufferedOutputStream(outputStream, BUFFER_SIZE);
+    }
+
+    private static byte[] toAsciiCode(String currencyCode) {
+        if (currencyCode.length() > MAX_CODE_LENGTH
+                || !StandardCharsets.US_ASCII.newEncoder().canEncode(currencyCode)) {
+            throw new IllegalArgumentException("Currency code %s cannot be exported as binary".formatted(currencyCode));
+        }
+
+        return currencyCode.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,62 @@
+package com.narektm.exchangeratesapi.cache;
+
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.exception.NotFoundException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of all cached exchange rates.
+ * <p>
+ * A new snapshot is built off to the side on every update and published with a single reference swap,
+ * so readers always see the rates of all currencies as of one version.
+ */
+public record RatesSnapshot(long version,
+                            Instant publishedOn,
+                            Map<String, CurrencyDetailsDto> currencies,
+                            RateMatrix rateMatrix,
+                            Map<String, EncodedResponse> encodedCurrencies,
+                            EncodedResponse encodedCurrencyList) {
+
+    public CurrencyDetailsDto getCurrency(String currencyCode) {
+        CurrencyDetailsDto currencyDetailsDto = currencies.get(currencyCode);
+        if (currencyDetailsDto == null) {
+            throw currencyNotFound(currencyCode);
+        }
+
+        return currencyDetailsDto;
+    }
+
+    public EncodedResponse getEncodedCurrency(String currencyCode) {
+        EncodedResponse encodedResponse = encodedCurrencies.get(currencyCode);
+        if (encodedResponse == null) {
+            throw currencyNotFound(currencyCode);
+        }
+
+        return encodedResponse;
+    }
+
+    public BigDecimal getExchangeRate(String baseCurrencyCode, String quoteCurrencyCode) {
+        BigDecimal rate = rateMatrix.exactRate(baseCurrencyCode, quoteCurrencyCode);
+        if (rate == null) {
+            throw exchangeRateNotFound(baseCurrencyCode, quoteCurrencyCode);
+        }
+
+        return rate;
+    }
+
+    public BigDecimal convert(String baseCurrencyCode, String quoteCurrencyCode, BigDecimal amount) {
+        return amount.multiply(getExchangeRate(baseCurrencyCode, quoteCurrencyCode));
+    }
+
+    private static NotFoundException exchangeRateNotFound(String baseCurrencyCode, String quoteCurrencyCode) {
+        return new NotFoundException("Exchange rate from %s to %s not found"
+                .formatted(baseCurrencyCode, quoteCurrencyCode));
+    }
+
+    private static NotFoundException currencyNotFound(String currencyCode) {
+        return new NotFoundException("Currency with code %s not found".formatted(currencyCode));
+    }
+}
@@ -0,0 +1,72 @@
+package com.narektm.exchangeratesapi.cache;
+
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+public class RatesSnapshotFactory {
+
+    private final CurrencyResponseEncoder currencyResponseEncoder;
+
+    public RatesSnapshotFactory(CurrencyResponseEncoder currencyResponseEncoder) {
+        this.currencyResponseEncoder = currencyResponseEncoder;
+    }
+
+    public RatesSnapshot empty() {
+        return new RatesSnapshot(0,
+                Instant.now(),
+                Map.of(),
+                RateMatrix.empty(),
+                Map.of(),
+                currencyResponseEncoder.encode(List.of()));
+    }
+
+    /**
+     * Builds the next snapshot with the given currencies added or replaced.
+     * <p>
+     * The rates are merged into a new rate matrix and all currencies are rebound to read-only row views of it,
+     * so no boxed per-currency rate maps are retained. Only the responses of the updated currencies and
+     * the currency list are encoded, the others are carried over from the previous snapshot.
+     */
+    public RatesSnapshot merge(RatesSnapshot previous, Collection<CurrencyDetailsDto> currencyDetailsDtos) {
+        Map<String, Map<String, BigDecimal>> ratesByBase = currencyDetailsDtos.stream()
+                .collect(Collectors.toMap(CurrencyDetailsDto::code, CurrencyDetailsDto::rates,
+                        (previousRates, rates) -> rates));
+        RateMatrix rateMatrix = previous.rateMatrix().merge(ratesByBase);
+
+        Map<String, CurrencyDetailsDto> currencies = new HashMap<>(previous.currencies());
+        currencyDetailsDtos.forEach(currencyDetailsDto ->
+                currencies.put(currencyDetailsDto.code(), currencyDetailsDto));
+        currencies.replaceAll((currencyCode, currencyDetailsDto) -> {
+            int index = rateMatrix.indexOf(currencyCode);
+            if (index < 0 || !rateMatrix.containsBase(index)) {
+                return currencyDetailsDto;
+            }
+
+            return new CurrencyDetailsDto(currencyCode,
+                    rateMatrix.rates(index),
+                    currencyDetailsDto.createdOn(),
+                    currencyDetailsDto.updatedOn());
+        });
+
+        Map<String, EncodedResponse> encodedCurrencies = new HashMap<>(previous.encodedCurrencies());
+        ratesByBase.keySet().forEach(currencyCode -> encodedCurrencies.put(currencyCode,
+                currencyResponseEncoder.encode(currencies.get(currencyCode))));
+
+        return new RatesSnapshot(previous.version() + 1,
+                Instant.now(),
+                Map.copyOf(currencies),
+                rateMatrix,
+                Map.copyOf(encodedCurrencies),
+                currencyResponseEncoder.encode(currencies.keySet()));
+    }
+}
@@ -0,0 +1,41 @@
+package com.narektm.exchangeratesapi.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.narektm.exchangeratesapi.config.ReadThroughProperties;
+import com.narektm.exchangeratesapi.converter.ExchangeRatesResponseParser;
+import com.narektm.exchangeratesapi.metrics.CurrencyMetrics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Currency codes the external API rejected, remembered for a while so repeated lookups of a bogus code are
+ * answered without asking it again. Bounded in size, so a scan of random codes cannot grow it without limit.
+ * Codes that are not known currency codes are rejected up front, as their rates would be dropped anyway.
+ */
+@Component
+public class RejectedCurrencyCache {
+
+    private final Cache<String, Boolean> rejectedCurrencyCodes;
+    private final ExchangeRatesResponseParser exchangeRatesResponseParser;
+
+    public RejectedCurrencyCache(ReadThroughProperties properties,
+                                 CurrencyMetrics currencyMetrics,
+                                 ExchangeRatesResponseParser exchangeRatesResponseParser) {
+        this.exchangeRatesResponseParser = exchangeRatesResponseParser;
+        this.rejectedCurrencyCodes = Caffeine.newBuilder()
+                .maximumSize(properties.getNegativeCacheMaxSize())
+                .expireAfterWrite(properties.getNegativeCacheTtl())
+                .recordStats()
+                .build();
+        currencyMetrics.monitorCache(rejectedCurrencyCodes, "rejected.currencies");
+    }
+
+    public boolean isRejected(String currencyCode) {
+        return !exchangeRatesResponseParser.isKnownCurrencyCode(currencyCode)
+                || rejectedCurrencyCodes.getIfPresent(currencyCode) != null;
+    }
+
+    public void reject(String currencyCode) {
+        rejectedCurrencyCodes.put(currencyCode, Boolean.TRUE);
+    }
+}
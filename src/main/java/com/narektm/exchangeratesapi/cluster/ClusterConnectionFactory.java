@@ -0,0 +1,29 @@
+package com.narektm.exchangeratesapi.cluster;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Opens dedicated connections outside the pool. LISTEN and session-level advisory locks stay with the physical
+ * connection, so they must not end up on a pooled connection that is later handed out to someone else.
+ */
+@Component
+public class ClusterConnectionFactory {
+
+    private final DataSource dataSource;
+
+    public ClusterConnectionFactory(DataSourceProperties dataSourceProperties) {
+        this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(SimpleDriverDataSource.class)
+                .build();
+    }
+
+    public Connection open() throws SQLException {
+        return dataSource.getConnection();
+    }
+}
@@ -0,0 +1,9 @@
+package com.narektm.exchangeratesapi.cluster;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payload of a currency change notification. The update time of the row serves as its version.
+ */
+record CurrencyChange(String code, LocalDateTime updatedOn) {
+}
@@ -0,0 +1,123 @@
+package com.narektm.exchangeratesapi.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.config.ClusterProperties;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * Listens to the currency changes notified by the other instances and reloads just the changed rows. After
+ * a lost connection all currencies are reloaded, as the notifications sent in the meantime are gone.
+ */
+@Component
+@Slf4j
+public class CurrencyChangeListener {
+
+    private static final Pattern CHANNEL_PATTERN = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final ClusterProperties clusterProperties;
+    private final ClusterConnectionFactory clusterConnectionFactory;
+    private final CurrencyService currencyService;
+    private final ObjectMapper objectMapper;
+
+    private volatile boolean running;
+    private volatile Thread listenerThread;
+
+    public CurrencyChangeListener(ClusterProperties clusterProperties,
+                                  ClusterConnectionFactory clusterConnectionFactory,
+                                  CurrencyService currencyService,
+                                  ObjectMapper objectMapper) {
+        this.clusterProperties = clusterProperties;
+        this.clusterConnectionFactory = clusterConnectionFactory;
+        this.currencyService = currencyService;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void start() {
+        if (!clusterProperties.isEnabled()) {
+            return;
+        }
+        // the channel is an identifier in LISTEN and cannot be passed as a parameter
+        if (!CHANNEL_PATTERN.matcher(clusterProperties.getChannel()).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel %s"
+                    .formatted(clusterProperties.getChannel()));
+        }
+
+        running = true;
+        listenerThread = Thread.ofPlatform().daemon().name("currency-change-listener").start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = listenerThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = clusterConnectionFactory.open()) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + clusterProperties.getChannel());
+                }
+                log.info("Listening to currency changes on channel {}", clusterProperties.getChannel());
+                if (reconnecting) {
+                    currencyService.reloadExchangeRates();
+                }
+                reconnecting = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollTimeoutMillis = Math.toIntExact(clusterProperties.getPollTimeout().toMillis());
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handle(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the currency change listener connection, reconnecting in {}, exception message: {}",
+                        clusterProperties.getReconnectDelay(), e.getMessage());
+                try {
+                    Thread.sleep(clusterProperties.getReconnectDelay());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    void handle(String payload) {
+        // a bad notification must not stop the listener
+        try {
+            CurrencyChange currencyChange = objectMapper.readValue(payload, CurrencyChange.class);
+            currencyService.reloadCurrency(currencyChange.code(), currencyChange.updatedOn());
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed currency change notification {}", payload);
+        } catch (Exception e) {
+            log.warn("Failed to reload currency changed by notification {}, exception message: {}",
+                    payload, e.getMessage());
+        }
+    }
+}
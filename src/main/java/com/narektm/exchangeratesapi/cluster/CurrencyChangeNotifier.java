@@ -0,0 +1,58 @@
+package com.narektm.exchangeratesapi.cluster;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.config.ClusterProperties;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Notifies the other instances of the currencies written by this one, so they reload just those rows.
+ */
+@Component
+@Slf4j
+public class CurrencyChangeNotifier {
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private final ClusterProperties clusterProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public CurrencyChangeNotifier(ClusterProperties clusterProperties,
+                                  JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper) {
+        this.clusterProperties = clusterProperties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public void notifyChanged(Collection<CurrencyDetailsDto> currencyDetailsDtos) {
+        if (!clusterProperties.isEnabled() || currencyDetailsDtos.isEmpty()) {
+            return;
+        }
+
+        // the rows are already committed, so a failed notification leaves the others stale until the next change
+        try {
+            currencyDetailsDtos.forEach(currencyDetailsDto ->
+                    jdbcTemplate.queryForList(NOTIFY_SQL, clusterProperties.getChannel(), toJson(currencyDetailsDto)));
+        } catch (Exception e) {
+            log.warn("Failed to notify changes of {} currencies, exception message: {}",
+                    currencyDetailsDtos.size(), e.getMessage());
+        }
+    }
+
+    private String toJson(CurrencyDetailsDto currencyDetailsDto) {
+        try {
+            return objectMapper.writeValueAsString(
+                    new CurrencyChange(currencyDetailsDto.code(), currencyDetailsDto.updatedOn()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize change of currency with code %s"
+                    .formatted(currencyDetailsDto.code()), e);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.narektm.exchangeratesapi.cluster;
+
+import com.narektm.exchangeratesapi.config.ClusterProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Elects the instance that refreshes the rates through a session-level Postgres advisory lock. The lock is held
+ * on a dedicated connection, so it is released as soon as the leader stops or loses its connection, and the next
+ * instance to ask takes over.
+ */
+@Component
+@Slf4j
+public class RefreshLeaderElection {
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+
+    private final ClusterProperties clusterProperties;
+    private final ClusterConnectionFactory clusterConnectionFactory;
+
+    private Connection connection;
+    private boolean leader;
+
+    public RefreshLeaderElection(ClusterProperties clusterProperties,
+                                 ClusterConnectionFactory clusterConnectionFactory) {
+        this.clusterProperties = clusterProperties;
+        this.clusterConnectionFactory = clusterConnectionFactory;
+    }
+
+    /**
+     * @return whether this instance should refresh the rates, always {@code true} outside of the cluster mode
+     */
+    public synchronized boolean isLeader() {
+        if (!clusterProperties.isEnabled()) {
+            return true;
+        }
+
+        try {
+            if (connection == null || !connection.isValid(1)) {
+                close();
+                connection = clusterConnectionFactory.open();
+            }
+            // advisory locks are reentrant, so the lock is taken once and then kept
+            if (!leader) {
+                leader = tryLock();
+                if (leader) {
+                    log.info("Acquired the refresh leadership");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to check the refresh leadership, exception message: {}", e.getMessage());
+            close();
+        }
+
+        return leader;
+    }
+
+    private boolean tryLock() throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(TRY_LOCK_SQL)) {
+            statement.setLong(1, clusterProperties.getLeaderLockKey());
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (leader) {
+            log.info("Released the refresh leadership");
+        }
+        leader = false;
+        if (connection == null) {
+            return;
+        }
+
+        // closing the connection ends the session and releases the lock with it
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close the leader connection, exception message: {}", e.getMessage());
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties("exchange.rates.bulk-read")
+@Getter
+@Setter
+public class BulkReadProperties {
+
+    /**
+     * Most currency codes a single bulk read may ask for, as every code may cost a lookup in the database or
+     * the external API with the read-through enabled.
+     */
+    private int maxCodes = 50;
+}
@@ -0,0 +1,41 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("exchange.rates.cluster")
+@Getter
+@Setter
+public class ClusterProperties {
+
+    /**
+     * Keeps the cached rates of several instances sharing the database in sync and lets only one of them
+     * refresh the rates.
+     */
+    private boolean enabled;
+
+    /**
+     * Postgres channel the changed currencies are notified on.
+     */
+    private String channel = "currency_changes";
+
+    /**
+     * How long the listener waits for notifications before checking its connection.
+     */
+    private Duration pollTimeout = Duration.ofSeconds(1);
+
+    /**
+     * How long to wait before reconnecting after the listener or the leader has lost its connection.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+
+    /**
+     * Key of the Postgres advisory lock held by the instance that refreshes the rates.
+     */
+    private long leaderLockKey = 0x45585241L;
+}
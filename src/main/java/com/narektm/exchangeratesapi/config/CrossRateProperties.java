@@ -0,0 +1,26 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("exchange.rates.cross-rate")
+@Getter
+@Setter
+public class CrossRateProperties {
+
+    private boolean enabled;
+
+    private String pivotCurrencyCode = "EUR";
+
+    private int scale = 10;
+
+    /**
+     * Age after which the pivot rates are fetched again before rates of a single currency are derived from them.
+     */
+    private Duration pivotMaxAge = Duration.ofMinutes(1);
+}
@@ -5,6 +5,9 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Set;
+
 @Component
 @ConfigurationProperties("exchange.rates.external-api")
 @Getter
@@ -16,4 +19,32 @@ public class ExternalExchangeRatesApiProperties {
     private String baseUri;
 
     private String latestRatesUri;
+
+    /**
+     * Currency codes the external API returns in addition to the ISO 4217 codes known to the JVM. Rates of
+     * other codes are skipped while parsing.
+     */
+    private Set<String> extraCurrencyCodes = Set.of("BTC", "CNH", "GGP", "IMP", "JEP");
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    /**
+     * How long a fetch waits for the response, and for each read of it, before failing.
+     */
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How long a fetch waits for a pooled connection while all of them are in use.
+     */
+    private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Size of the pool of connections to the upstream rate providers.
+     */
+    private int maxConnections = 20;
+
+    /**
+     * How long an idle connection is kept open for reuse, unless the server asks for less.
+     */
+    private Duration keepAlive = Duration.ofSeconds(30);
 }
@@ -0,0 +1,40 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("exchange.rates.fetch-throttle")
+@Getter
+@Setter
+public class FetchThrottleProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Sustained rate of upstream requests, refilling the token bucket.
+     */
+    private double requestsPerSecond = 5;
+
+    /**
+     * Size of the token bucket, i.e. the number of requests that may be sent at once after an idle period.
+     */
+    private int burst = 5;
+
+    private int maxAttempts = 3;
+
+    private Duration initialBackoff = Duration.ofMillis(500);
+
+    private Duration maxBackoff = Duration.ofSeconds(10);
+
+    /**
+     * Number of consecutive failed fetches that opens the circuit breaker.
+     */
+    private int circuitBreakerFailureThreshold = 5;
+
+    private Duration circuitBreakerOpenDuration = Duration.ofMinutes(1);
+}
@@ -0,0 +1,88 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+@Component
+@ConfigurationProperties("exchange.rates.providers")
+@Getter
+@Setter
+public class ProvidersProperties {
+
+    /**
+     * Names of the rate providers to fetch from, in order of preference. The first one is the primary, the
+     * others are only asked once the one before them is slow or fails.
+     */
+    private List<String> order = List.of("apilayer");
+
+    /**
+     * Percentile of the recent latencies of the primary provider after which the next provider is asked as well.
+     */
+    private double hedgePercentile = 0.95;
+
+    /**
+     * Lower bound of the hedge delay, so a fast primary does not turn every fetch into several.
+     */
+    private Duration minHedgeDelay = Duration.ofMillis(50);
+
+    /**
+     * Upper bound of the hedge delay, also used until enough latencies of the primary provider were recorded.
+     */
+    private Duration maxHedgeDelay = Duration.ofSeconds(2);
+
+    /**
+     * Number of recent latencies of the primary provider the hedge delay is calculated from.
+     */
+    private int latencySamples = 100;
+
+    private int minLatencySamples = 20;
+
+    /**
+     * Relative difference of a rate reported by two providers above which they are logged as disagreeing.
+     */
+    private double maxDeviation = 0.02;
+
+    private Ecb ecb = new Ecb();
+
+    private File file = new File();
+
+    @Getter
+    @Setter
+    public static class Ecb {
+
+        /**
+         * Daily reference rates of the European Central Bank, quoted against EUR.
+         */
+        private String uri = "https://www.ecb.europa.eu/stats/eurofxref/eurofxref-daily.xml";
+
+        /**
+         * Time of day the reference rates are published on working days, around 16:00 CET.
+         */
+        private LocalTime publicationTime = LocalTime.of(16, 0);
+
+        private ZoneId publicationZone = ZoneId.of("Europe/Berlin");
+
+        /**
+         * How often the rates are fetched again once the rates of the day are due but not published yet.
+         */
+        private Duration retryInterval = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class File {
+
+        /**
+         * JSON file in the format of the external API, e.g. {@code {"base": "EUR", "rates": {"USD": 1.08}}}.
+         */
+        private Path path;
+    }
+}
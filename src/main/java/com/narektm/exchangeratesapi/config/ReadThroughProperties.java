@@ -0,0 +1,40 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("exchange.rates.read-through")
+@Getter
+@Setter
+public class ReadThroughProperties {
+
+    /**
+     * Looks up a currency missing from the cache in the database and then in the external API, and starts
+     * tracking it, instead of answering 404 until it is added.
+     */
+    private boolean enabled;
+
+    /**
+     * Age of cached rates after which a read goes to the database and then to the external API for fresher
+     * ones, unbounded if not set as the scheduled refresh keeps them fresh. Rates a fetch confirmed unchanged
+     * count as fresh from that fetch on.
+     */
+    private Duration memoryMaxAge;
+
+    /**
+     * Age of stored rates after which a read goes to the external API for fresher ones.
+     */
+    private Duration databaseMaxAge = Duration.ofHours(1);
+
+    /**
+     * How long a currency code the external API rejected is answered with 404 without asking it again.
+     */
+    private Duration negativeCacheTtl = Duration.ofHours(1);
+
+    private long negativeCacheMaxSize = 10_000;
+}
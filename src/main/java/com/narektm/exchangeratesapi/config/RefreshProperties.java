@@ -0,0 +1,53 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+@ConfigurationProperties("exchange.rates.refresh")
+@Getter
+@Setter
+public class RefreshProperties {
+
+    private boolean virtualThreads = true;
+
+    private int maxConcurrentFetches = 5;
+
+    /**
+     * Cron expression of the full refresh of all currencies, {@code -} to disable it.
+     */
+    private String cron = "0 10 0 * * *";
+
+    /**
+     * Refreshes every currency at the interval of its tier instead of all at once.
+     */
+    private boolean tieredEnabled;
+
+    /**
+     * How often the tiered refresh checks for currencies that are due.
+     */
+    private Duration tick = Duration.ofSeconds(10);
+
+    /**
+     * Refresh interval of the currencies that are not in any tier.
+     */
+    private Duration defaultInterval = Duration.ofHours(1);
+
+    private Map<String, Tier> tiers = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Tier {
+
+        private Duration interval;
+
+        private Set<String> currencies = Set.of();
+    }
+}
@@ -15,7 +15,9 @@ public class SchedulingConfig {
     public ThreadPoolTaskScheduler taskScheduler() {
         ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
 
-        scheduler.setPoolSize(10);
+        // the full refresh, the tiered refresh tick and the stream heartbeat,
+        // the fetches themselves run on their own executor
+        scheduler.setPoolSize(3);
         scheduler.initialize();
 
         return scheduler;
@@ -0,0 +1,32 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("exchange.rates.stream")
+@Getter
+@Setter
+public class StreamProperties {
+
+    /**
+     * How long a subscription stays open before the client has to reconnect.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * How often an idle subscription gets a comment, to keep proxies from closing it and to detect gone clients.
+     */
+    private Duration heartbeat = Duration.ofSeconds(30);
+
+    private int maxSubscribers = 10_000;
+
+    /**
+     * Events a subscriber may fall behind by before it is disconnected as too slow.
+     */
+    private int maxPendingEvents = 100;
+}
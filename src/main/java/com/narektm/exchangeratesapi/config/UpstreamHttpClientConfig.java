@@ -0,0 +1,76 @@
+package com.narektm.exchangeratesapi.config;
+
+import com.narektm.exchangeratesapi.metrics.CurrencyMetrics;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.SSLConnectionSocketFactory;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import javax.net.ssl.SSLSocket;
+
+/**
+ * The HTTP client of the upstream rate providers: a bounded pool of kept-alive connections, so a refresh reuses
+ * connections instead of paying a TLS handshake per request, with timeouts, so a slow upstream fails a fetch
+ * instead of hanging it. Responses are requested gzip-compressed and decompressed transparently.
+ */
+@Configuration
+public class UpstreamHttpClientConfig {
+
+    @Bean
+    public HttpComponentsClientHttpRequestFactory upstreamRequestFactory(ExternalExchangeRatesApiProperties properties,
+                                                                         CurrencyMetrics currencyMetrics) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setSSLSocketFactory(new CountingSslConnectionSocketFactory(currencyMetrics))
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        // a connection the server may have closed meanwhile is checked before it is reused
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        currencyMetrics.registerUpstreamPoolGauges(connectionManager);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setConnectionKeepAlive(TimeValue.of(properties.getKeepAlive()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getKeepAlive()))
+                .build();
+
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    /**
+     * Counts the TLS handshakes of new upstream connections.
+     */
+    private static final class CountingSslConnectionSocketFactory extends SSLConnectionSocketFactory {
+
+        private final CurrencyMetrics currencyMetrics;
+
+        CountingSslConnectionSocketFactory(CurrencyMetrics currencyMetrics) {
+            super(SSLContexts.createSystemDefault());
+            this.currencyMetrics = currencyMetrics;
+        }
+
+        @Override
+        protected void prepareSocket(SSLSocket socket, HttpContext context) {
+            socket.addHandshakeCompletedListener(event -> currencyMetrics.recordUpstreamHandshake());
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.narektm.exchangeratesapi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties("exchange.rates.warm-up")
+@Getter
+@Setter
+public class WarmUpProperties {
+
+    /**
+     * Loads the cached rates in the background once the application has started, instead of before it
+     * finishes starting.
+     */
+    private boolean async = true;
+
+    private int pageSize = 100;
+
+    /**
+     * Delay before the first retry of a failed background warm-up, doubled after every further failure up to
+     * {@link #maxBackoff}. A failed warm-up before the application finishes starting fails the startup instead.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    private Duration maxBackoff = Duration.ofMinutes(1);
+}
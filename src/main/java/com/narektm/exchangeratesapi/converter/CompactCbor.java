@@ -0,0 +1,112 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compact CBOR encoding of the currency responses for internal consumers.
+ * <p>
+ * A currency is identified by its code packed into an integer, base 26 with {@code A} as 0, so {@code USD} is
+ * {@code 14015} and ids sort like codes. A currency is encoded as the array
+ * {@code [id, createdOn, updatedOn, scale, {quoteId: rate, ...}]} with the times in epoch milliseconds and every rate
+ * as an integer of {@code rate * 10^scale}. A rate too large for a long at that scale is written as a CBOR decimal
+ * fraction instead. The currency list is encoded as the sorted array of ids.
+ */
+public final class CompactCbor {
+
+    public static final int RATE_SCALE = 10;
+
+    private static final int CODE_LENGTH = 3;
+    private static final int CURRENCY_FIELDS = 5;
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private CompactCbor() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the code does not consist of three ASCII letters
+     */
+    public static int currencyId(String currencyCode) {
+        if (currencyCode.length() != CODE_LENGTH) {
+            throw invalidCode(currencyCode);
+        }
+
+        int id = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            char letter = Character.toUpperCase(currencyCode.charAt(i));
+            if (letter < 'A' || letter > 'Z') {
+                throw invalidCode(currencyCode);
+            }
+            id = id * 26 + (letter - 'A');
+        }
+
+        return id;
+    }
+
+    public static byte[] encode(CurrencyDetailsDto currencyDetailsDto) {
+        Map<String, BigDecimal> rates = new TreeMap<>(currencyDetailsDto.rates());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(32 + rates.size() * 12);
+        try (CBORGenerator generator = CBOR_FACTORY.createGenerator(outputStream)) {
+            generator.writeStartArray(currencyDetailsDto, CURRENCY_FIELDS);
+            generator.writeNumber(currencyId(currencyDetailsDto.code()));
+            generator.writeNumber(toEpochMillis(currencyDetailsDto.createdOn()));
+            generator.writeNumber(toEpochMillis(currencyDetailsDto.updatedOn()));
+            generator.writeNumber(RATE_SCALE);
+            generator.writeStartObject(rates, rates.size());
+            for (Map.Entry<String, BigDecimal> rate : rates.entrySet()) {
+                generator.writeFieldId(currencyId(rate.getKey()));
+                writeRate(generator, rate.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    public static byte[] encode(Collection<String> currencyCodes) {
+        int[] ids = currencyCodes.stream()
+                .mapToInt(CompactCbor::currencyId)
+                .sorted()
+                .toArray();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(8 + ids.length * 3);
+        try (CBORGenerator generator = CBOR_FACTORY.createGenerator(outputStream)) {
+            generator.writeArray(ids, 0, ids.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private static void writeRate(CBORGenerator generator, BigDecimal rate) throws IOException {
+        BigDecimal scaledRate = rate.setScale(RATE_SCALE, RoundingMode.HALF_EVEN);
+        if (scaledRate.unscaledValue().bitLength() < Long.SIZE) {
+            generator.writeNumber(scaledRate.unscaledValue().longValue());
+        } else {
+            generator.writeNumber(scaledRate);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static IllegalArgumentException invalidCode(String currencyCode) {
+        return new IllegalArgumentException("Currency code %s cannot be encoded as an id".formatted(currencyCode));
+    }
+}
@@ -0,0 +1,161 @@
+package com.narektm.exchangeratesapi.converter;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable rates map backed by parallel arrays sorted by currency code. Each rate is kept as the unscaled value
+ * and scale of the decimal it was read from, so no entry objects or boxed values are retained, and a rate is
+ * materialized as a {@link BigDecimal} equal to the original decimal only when it is read.
+ */
+public final class CompactRateMap extends AbstractMap<String, BigDecimal> {
+
+    private final String[] currencyCodes;
+    private final long[] unscaledRates;
+    private final int[] scales;
+    private final int size;
+
+    private CompactRateMap(String[] currencyCodes, long[] unscaledRates, int[] scales, int size) {
+        this.currencyCodes = currencyCodes;
+        this.unscaledRates = unscaledRates;
+        this.scales = scales;
+        this.size = size;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public BigDecimal get(Object key) {
+        int index = indexOf(key);
+
+        return index < 0 ? null : rate(index);
+    }
+
+    @Override
+    public Set<Entry<String, BigDecimal>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, BigDecimal>> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < size;
+                    }
+
+                    @Override
+                    public Entry<String, BigDecimal> next() {
+                        if (index >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int current = index++;
+
+                        return new SimpleImmutableEntry<>(currencyCodes[current], rate(current));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private BigDecimal rate(int index) {
+        return BigDecimal.valueOf(unscaledRates[index], scales[index]);
+    }
+
+    private int indexOf(Object key) {
+        return key instanceof String currencyCode ? Arrays.binarySearch(currencyCodes, 0, size, currencyCode) : -1;
+    }
+
+    /**
+     * Collects the rates in the order they are read. The upstream sends them sorted by code, so sorting them
+     * when building is usually a single pass.
+     */
+    public static final class Builder {
+
+        private String[] currencyCodes;
+        private long[] unscaledRates;
+        private int[] scales;
+        private int size;
+
+        private Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            this.currencyCodes = new String[capacity];
+            this.unscaledRates = new long[capacity];
+            this.scales = new int[capacity];
+        }
+
+        public Builder put(String currencyCode, long unscaledRate, int scale) {
+            if (size == currencyCodes.length) {
+                int capacity = size * 2;
+                currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+                unscaledRates = Arrays.copyOf(unscaledRates, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+            }
+            currencyCodes[size] = currencyCode;
+            unscaledRates[size] = unscaledRate;
+            scales[size] = scale;
+            size++;
+
+            return this;
+        }
+
+        /**
+         * Sorts the rates by code, a later rate of the same code replacing an earlier one.
+         */
+        public CompactRateMap build() {
+            // insertion sort on the parallel arrays, stable, so the last rate of a code ends up last among equals
+            for (int i = 1; i < size; i++) {
+                String currencyCode = currencyCodes[i];
+                long unscaledRate = unscaledRates[i];
+                int scale = scales[i];
+                int j = i - 1;
+                while (j >= 0 && currencyCodes[j].compareTo(currencyCode) > 0) {
+                    currencyCodes[j + 1] = currencyCodes[j];
+                    unscaledRates[j + 1] = unscaledRates[j];
+                    scales[j + 1] = scales[j];
+                    j--;
+                }
+                currencyCodes[j + 1] = currencyCode;
+                unscaledRates[j + 1] = unscaledRate;
+                scales[j + 1] = scale;
+            }
+
+            int distinctSize = 0;
+            for (int i = 0; i < size; i++) {
+                if (i + 1 < size && currencyCodes[i].equals(currencyCodes[i + 1])) {
+                    continue;
+                }
+                currencyCodes[distinctSize] = currencyCodes[i];
+                unscaledRates[distinctSize] = unscaledRates[i];
+                scales[distinctSize] = scales[i];
+                distinctSize++;
+            }
+
+            return new CompactRateMap(Arrays.copyOf(currencyCodes, distinctSize),
+                    Arrays.copyOf(unscaledRates, distinctSize), Arrays.copyOf(scales, distinctSize), distinctSize);
+        }
+    }
+}
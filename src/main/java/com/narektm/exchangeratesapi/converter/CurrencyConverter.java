@@ -28,6 +28,7 @@ public class CurrencyConverter {
 
         currencyEntity.setCode(exchangeRatesResponse.baseCurrencyCode());
         currencyEntity.setRates(exchangeRatesResponse.rates());
+        currencyEntity.setRatesHash(RatesHash.of(exchangeRatesResponse.rates()));
         LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
         currencyEntity.setCreatedOn(now);
         currencyEntity.setUpdatedOn(now);
@@ -0,0 +1,99 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.cache.EncodedResponse;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.dto.CurrencySummaryDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+@Component
+@Slf4j
+public class CurrencyResponseEncoder {
+
+    private final ObjectMapper objectMapper;
+
+    public CurrencyResponseEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public EncodedResponse encode(CurrencyDetailsDto currencyDetailsDto) {
+        String eTag = "\"%s-%d\"".formatted(currencyDetailsDto.code(),
+                currencyDetailsDto.updatedOn().toInstant(ZoneOffset.UTC).toEpochMilli());
+
+        return EncodedResponse.of(writeValueAsBytes(currencyDetailsDto),
+                encodeCbor("currency with code " + currencyDetailsDto.code(), () -> CompactCbor.encode(currencyDetailsDto)),
+                eTag);
+    }
+
+    public EncodedResponse encode(Collection<String> currencyCodes) {
+        List<CurrencySummaryDto> currencySummaryDtos = currencyCodes.stream()
+                .sorted()
+                .map(CurrencySummaryDto::new)
+                .toList();
+        String eTag = "\"currencies-%08x\"".formatted(currencySummaryDtos.hashCode());
+
+        return EncodedResponse.of(writeValueAsBytes(currencySummaryDtos),
+                encodeCbor("currency list", () -> CompactCbor.encode(currencyCodes)),
+                eTag);
+    }
+
+    /**
+     * Encodes the currencies as a JSON array. The array is served as JSON only.
+     */
+    public EncodedResponse encodeAll(List<CurrencyDetailsDto> currencyDetailsDtos) {
+        byte[] json = writeValueAsBytes(currencyDetailsDtos);
+
+        return EncodedResponse.of(json, null, "\"currencies-%08x\"".formatted(Arrays.hashCode(json)));
+    }
+
+    /**
+     * Joins the pre-encoded JSON bodies of the currencies into a JSON array without encoding them again.
+     * The array is served as JSON only.
+     */
+    public EncodedResponse join(List<EncodedResponse> encodedResponses) {
+        int length = encodedResponses.stream().mapToInt(encodedResponse -> encodedResponse.json().length + 1).sum();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(length + 1);
+        StringBuilder eTags = new StringBuilder();
+        outputStream.write('[');
+        for (int i = 0; i < encodedResponses.size(); i++) {
+            if (i > 0) {
+                outputStream.write(',');
+            }
+            outputStream.writeBytes(encodedResponses.get(i).json());
+            eTags.append(encodedResponses.get(i).eTag());
+        }
+        outputStream.write(']');
+
+        return EncodedResponse.of(outputStream.toByteArray(), null,
+                "\"currencies-%08x\"".formatted(eTags.toString().hashCode()));
+    }
+
+    /**
+     * A currency whose code cannot be encoded as an id is served as JSON only, rather than failing the snapshot.
+     */
+    private static byte[] encodeCbor(String subject, Supplier<byte[]> encoding) {
+        try {
+            return encoding.get();
+        } catch (IllegalArgumentException e) {
+            log.warn("Failed to encode CBOR response of {}, exception message: {}", subject, e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] writeValueAsBytes(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to encode response", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link ExchangeRatesResponse} bodies of the external API with {@link ExchangeRatesResponseParser}
+ * instead of Jackson data binding. It is registered on the client of the external API only.
+ */
+public class ExchangeRatesResponseHttpMessageConverter extends AbstractHttpMessageConverter<ExchangeRatesResponse> {
+
+    private final ExchangeRatesResponseParser exchangeRatesResponseParser;
+
+    public ExchangeRatesResponseHttpMessageConverter(ExchangeRatesResponseParser exchangeRatesResponseParser) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.exchangeRatesResponseParser = exchangeRatesResponseParser;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ExchangeRatesResponse.class == clazz;
+    }
+
+    @Override
+    protected boolean canWrite(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ExchangeRatesResponse readInternal(Class<? extends ExchangeRatesResponse> clazz,
+                                                 HttpInputMessage inputMessage) throws IOException {
+        try {
+            return exchangeRatesResponseParser.parse(inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Failed to parse exchange rates response: " + e.getMessage(),
+                    e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(ExchangeRatesResponse exchangeRatesResponse, HttpOutputMessage outputMessage)
+            throws HttpMessageNotWritableException {
+        throw new HttpMessageNotWritableException("Exchange rates responses are only read");
+    }
+}
@@ -0,0 +1,167 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.config.ExternalExchangeRatesApiProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the latest rates response of the external API token by token straight into a {@link CompactRateMap}.
+ * <p>
+ * Other fields are skipped without being materialized. The codes are checked against the known currency codes
+ * and replaced by their canonical instances, and plain decimals are read from the token text into an unscaled
+ * long and a scale, so parsing a response allocates little beyond the resulting arrays.
+ */
+@Component
+@Slf4j
+public class ExchangeRatesResponseParser {
+
+    private static final String BASE_FIELD = "base";
+    private static final String RATES_FIELD = "rates";
+    private static final int EXPECTED_RATE_COUNT = 192;
+    private static final int MAX_LONG_DIGITS = 18;
+
+    private final JsonFactory jsonFactory;
+    private final Map<String, String> knownCurrencyCodes = new HashMap<>();
+
+    public ExchangeRatesResponseParser(ObjectMapper objectMapper, ExternalExchangeRatesApiProperties properties) {
+        this.jsonFactory = objectMapper.getFactory();
+        Currency.getAvailableCurrencies().forEach(currency ->
+                knownCurrencyCodes.put(currency.getCurrencyCode(), currency.getCurrencyCode()));
+        properties.getExtraCurrencyCodes().forEach(currencyCode ->
+                knownCurrencyCodes.put(currencyCode, currencyCode));
+    }
+
+    /**
+     * Returns whether the code is an ISO 4217 code or one of the extra currency codes, i.e. whether rates of it
+     * would be accepted.
+     */
+    public boolean isKnownCurrencyCode(String currencyCode) {
+        return knownCurrencyCodes.containsKey(currencyCode);
+    }
+
+    public ExchangeRatesResponse parse(InputStream inputStream) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an exchange rates object");
+            }
+
+            String baseCurrencyCode = null;
+            CompactRateMap rates = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                switch (fieldName) {
+                    case BASE_FIELD -> baseCurrencyCode = readBaseCurrencyCode(parser);
+                    case RATES_FIELD -> rates = readRates(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            if (baseCurrencyCode == null || rates == null) {
+                throw new JsonParseException(parser, "Exchange rates response is missing the base or the rates");
+            }
+
+            return new ExchangeRatesResponse(baseCurrencyCode, rates);
+        }
+    }
+
+    private String readBaseCurrencyCode(JsonParser parser) throws IOException {
+        String currencyCode = knownCurrencyCodes.get(parser.getValueAsString());
+        if (currencyCode == null) {
+            throw new JsonParseException(parser, "Unknown base currency code %s".formatted(parser.getText()));
+        }
+
+        return currencyCode;
+    }
+
+    private CompactRateMap readRates(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected an object of rates");
+        }
+
+        CompactRateMap.Builder builder = CompactRateMap.builder(EXPECTED_RATE_COUNT);
+        List<String> unknownCurrencyCodes = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // field names are canonicalized by the parser, so looking them up allocates nothing
+            String currencyCode = knownCurrencyCodes.get(parser.currentName());
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+                throw new JsonParseException(parser, "Expected a number as the rate of %s"
+                        .formatted(parser.currentName()));
+            }
+            if (currencyCode == null) {
+                if (unknownCurrencyCodes == null) {
+                    unknownCurrencyCodes = new ArrayList<>();
+                }
+                unknownCurrencyCodes.add(parser.currentName());
+                continue;
+            }
+            readRate(parser, currencyCode, builder);
+        }
+        if (unknownCurrencyCodes != null) {
+            log.warn("Skipped rates of unknown currency codes {}", unknownCurrencyCodes);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Reads a plain decimal of up to 18 digits from the token text, anything else through {@link BigDecimal}.
+     */
+    private static void readRate(JsonParser parser, String currencyCode, CompactRateMap.Builder builder)
+            throws IOException {
+        char[] text = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int end = offset + parser.getTextLength();
+
+        boolean negative = offset < end && text[offset] == '-';
+        long unscaledRate = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean fraction = false;
+        boolean plain = true;
+        for (int i = negative ? offset + 1 : offset; i < end && plain; i++) {
+            char c = text[i];
+            if (c >= '0' && c <= '9') {
+                unscaledRate = unscaledRate * 10 + (c - '0');
+                if (unscaledRate != 0) {
+                    digits++;
+                }
+                if (fraction) {
+                    scale++;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                plain = false;
+            }
+            if (digits > MAX_LONG_DIGITS) {
+                plain = false;
+            }
+        }
+        if (plain) {
+            builder.put(currencyCode, negative ? -unscaledRate : unscaledRate, scale);
+            return;
+        }
+
+        BigDecimal rate = parser.getDecimalValue();
+        if (rate.unscaledValue().bitLength() >= Long.SIZE) {
+            throw new JsonParseException(parser, "Rate of %s has too many digits".formatted(currencyCode));
+        }
+        builder.put(currencyCode, rate.unscaledValue().longValue(), rate.scale());
+    }
+}
@@ -0,0 +1,39 @@
+package com.narektm.exchangeratesapi.converter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Content hash of a rates map, used to detect whether the rates of a currency actually changed.
+ * The hash does not depend on the map order or on trailing zeros of the rates.
+ */
+public final class RatesHash {
+
+    private RatesHash() {
+    }
+
+    public static String of(Map<String, BigDecimal> rates) {
+        MessageDigest messageDigest = newMessageDigest();
+        new TreeMap<>(rates).forEach((currencyCode, rate) -> {
+            messageDigest.update(currencyCode.getBytes(StandardCharsets.US_ASCII));
+            messageDigest.update((byte) '=');
+            messageDigest.update(rate.stripTrailingZeros().toPlainString().getBytes(StandardCharsets.US_ASCII));
+            messageDigest.update((byte) ';');
+        });
+
+        return HexFormat.of().formatHex(messageDigest.digest());
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
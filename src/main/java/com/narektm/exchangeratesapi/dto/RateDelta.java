@@ -0,0 +1,12 @@
+package com.narektm.exchangeratesapi.dto;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * The rates of a base currency that changed in the given snapshot version.
+ */
+public record RateDelta(String base,
+                        long version,
+                        Map<String, BigDecimal> rates) {
+}
@@ -0,0 +1,4 @@
+package com.narektm.exchangeratesapi.dto;
+
+public record RefreshSummary(int changed, int unchanged, int failed) {
+}
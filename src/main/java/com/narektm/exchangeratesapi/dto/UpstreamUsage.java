@@ -0,0 +1,12 @@
+package com.narektm.exchangeratesapi.dto;
+
+/**
+ * Requests sent to the external API over a period, with the remaining monthly quota last reported by it,
+ * {@code null} if it did not report one.
+ */
+public record UpstreamUsage(long requests,
+                            long retries,
+                            long rateLimited,
+                            long rejectedByCircuitBreaker,
+                            Long remainingMonthlyQuota) {
+}
@@ -0,0 +1,29 @@
+package com.narektm.exchangeratesapi.health;
+
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the instance out of service until the cached rates have been loaded from the database. It is part
+ * of the readiness group, so the instance gets traffic only once the warm-up is complete.
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    private final CurrencyService currencyService;
+
+    public WarmUpHealthIndicator(CurrencyService currencyService) {
+        this.currencyService = currencyService;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = currencyService.isWarmedUp() ? Health.up() : Health.outOfService();
+
+        return builder
+                .withDetail("currencies", currencyService.getRatesSnapshot().currencies().size())
+                .build();
+    }
+}
@@ -0,0 +1,199 @@
+package com.narektm.exchangeratesapi.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.dto.RefreshSummary;
+import com.narektm.exchangeratesapi.dto.UpstreamUsage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Meters of the rate fetching, refresh, persistence and cache paths, exposed under the {@code exchange.rates}
+ * prefix, e.g. {@code exchange_rates_fetch_seconds} on the Prometheus endpoint.
+ */
+@Component
+public class CurrencyMetrics {
+
+    private static final String FETCH = "exchange.rates.fetch";
+    private static final String PERSIST = "exchange.rates.persist";
+    private static final String CURRENCY = "currency";
+    private static final String OTHER_CURRENCY = "other";
+    private static final String OUTCOME = "outcome";
+    private static final String OPERATION = "operation";
+    private static final String PROVIDER = "provider";
+    private static final String STATE = "state";
+    private static final String UPSTREAM_CONNECTIONS = "exchange.rates.upstream.connections";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer refreshTimer;
+    private final Counter currencyNotFoundCounter;
+    private final Counter upstreamHandshakeCounter;
+    private final AtomicLong lastRefreshEpochSeconds = new AtomicLong();
+    private final AtomicLong remainingMonthlyQuota = new AtomicLong(-1);
+
+    private volatile Supplier<RatesSnapshot> ratesSnapshotSupplier;
+
+    public CurrencyMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.refreshTimer = Timer.builder("exchange.rates.refresh")
+                .description("Duration of the scheduled rates refresh")
+                .register(meterRegistry);
+        this.currencyNotFoundCounter = Counter.builder("exchange.rates.currency.not.found")
+                .description("Lookups of currencies that are not tracked")
+                .register(meterRegistry);
+        this.upstreamHandshakeCounter = Counter.builder("exchange.rates.upstream.handshakes")
+                .description("TLS handshakes of new connections to the upstream rate providers")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.refresh.last.completed", lastRefreshEpochSeconds, AtomicLong::get)
+                .description("Epoch second the last rates refresh completed at, 0 if none has completed yet")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.upstream.quota.remaining", remainingMonthlyQuota, AtomicLong::get)
+                .description("Remaining monthly quota last reported by the external API, -1 if unknown")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the gauges of the published rates snapshot: the number of cached currencies and the seconds
+     * since the snapshot was published. The snapshot also bounds the currency tag to the tracked currencies.
+     */
+    public void registerSnapshotGauges(Supplier<RatesSnapshot> ratesSnapshotSupplier) {
+        this.ratesSnapshotSupplier = ratesSnapshotSupplier;
+        Gauge.builder("exchange.rates.cache.size", () -> ratesSnapshotSupplier.get().currencies().size())
+                .description("Number of cached currencies")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.snapshot.age", () ->
+                        Duration.between(ratesSnapshotSupplier.get().publishedOn(), Instant.now()).toSeconds())
+                .description("Seconds since the cached rates were last published")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the gauges of the pool of connections to the upstream rate providers.
+     */
+    public void registerUpstreamPoolGauges(ConnPoolControl<?> pool) {
+        Gauge.builder(UPSTREAM_CONNECTIONS, () -> pool.getTotalStats().getLeased())
+                .description("Connections to the upstream rate providers by state")
+                .tag(STATE, "leased")
+                .register(meterRegistry);
+        Gauge.builder(UPSTREAM_CONNECTIONS, () -> pool.getTotalStats().getAvailable())
+                .description("Connections to the upstream rate providers by state")
+                .tag(STATE, "available")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.upstream.connections.pending", () -> pool.getTotalStats().getPending())
+                .description("Fetches waiting for a connection to the upstream rate providers")
+                .register(meterRegistry);
+        Gauge.builder("exchange.rates.upstream.connections.max", () -> pool.getTotalStats().getMax())
+                .description("Size of the pool of connections to the upstream rate providers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers the size, hit, miss and eviction meters of a cache, e.g. {@code cache_gets_total{cache, result}}.
+     */
+    public void monitorCache(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * Counts a lookup of a currency missing from the cache, or staler than allowed, by where it was answered from.
+     */
+    public void recordReadThrough(String outcome) {
+        meterRegistry.counter("exchange.rates.read.through", OUTCOME, outcome).increment();
+    }
+
+    public void recordUpstreamHandshake() {
+        upstreamHandshakeCounter.increment();
+    }
+
+    public void recordFetch(String currencyCode, long startNanos, boolean succeeded) {
+        Timer.builder(FETCH)
+                .description("Latency of fetching the rates of one base currency from the external API")
+                .tag(CURRENCY, currencyTag(currencyCode))
+                .tag(OUTCOME, succeeded ? "success" : "failure")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts a currency left out of a refresh because fetching its rates failed.
+     */
+    public void recordDroppedFetch(String currencyCode) {
+        meterRegistry.counter(FETCH + ".dropped", CURRENCY, currencyTag(currencyCode)).increment();
+    }
+
+    /**
+     * Returns the currency code if the currency is tracked, and {@code other} for codes coming from clients that
+     * are not, so the number of time series stays bounded.
+     */
+    private String currencyTag(String currencyCode) {
+        Supplier<RatesSnapshot> snapshotSupplier = ratesSnapshotSupplier;
+        boolean tracked = snapshotSupplier != null && snapshotSupplier.get().currencies().containsKey(currencyCode);
+
+        return tracked ? currencyCode : OTHER_CURRENCY;
+    }
+
+    /**
+     * Counts a fetch sent to a secondary provider because the providers before it were slow or failed.
+     */
+    public void recordHedgedFetch(String provider) {
+        meterRegistry.counter(FETCH + ".hedged", PROVIDER, provider).increment();
+    }
+
+    /**
+     * Counts a rate two providers reported too differently to both be right.
+     */
+    public void recordProviderDisagreement(String provider, String otherProvider) {
+        meterRegistry.counter("exchange.rates.provider.disagreements", PROVIDER, provider, "other", otherProvider)
+                .increment();
+    }
+
+    public void recordRefresh(long startNanos, RefreshSummary refreshSummary) {
+        refreshTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("exchange.rates.refresh.currencies", OUTCOME, "changed")
+                .increment(refreshSummary.changed());
+        meterRegistry.counter("exchange.rates.refresh.currencies", OUTCOME, "unchanged")
+                .increment(refreshSummary.unchanged());
+        meterRegistry.counter("exchange.rates.refresh.currencies", OUTCOME, "failed")
+                .increment(refreshSummary.failed());
+        lastRefreshEpochSeconds.set(Instant.now().getEpochSecond());
+    }
+
+    public void recordUpstreamUsage(UpstreamUsage upstreamUsage) {
+        meterRegistry.counter("exchange.rates.upstream.requests", OUTCOME, "sent")
+                .increment(upstreamUsage.requests());
+        meterRegistry.counter("exchange.rates.upstream.requests", OUTCOME, "retried")
+                .increment(upstreamUsage.retries());
+        meterRegistry.counter("exchange.rates.upstream.requests", OUTCOME, "rate_limited")
+                .increment(upstreamUsage.rateLimited());
+        meterRegistry.counter("exchange.rates.upstream.requests", OUTCOME, "rejected")
+                .increment(upstreamUsage.rejectedByCircuitBreaker());
+        if (upstreamUsage.remainingMonthlyQuota() != null) {
+            remainingMonthlyQuota.set(upstreamUsage.remainingMonthlyQuota());
+        }
+    }
+
+    public void recordPersist(String operation, long startNanos) {
+        Timer.builder(PERSIST)
+                .description("Latency of writing currencies to the database")
+                .tag(OPERATION, operation)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordCurrencyNotFound() {
+        currencyNotFoundCounter.increment();
+    }
+}
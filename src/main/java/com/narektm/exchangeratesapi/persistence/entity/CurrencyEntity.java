@@ -36,6 +36,9 @@ public class CurrencyEntity {
     @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, BigDecimal> rates;
 
+    @Column(length = 64)
+    private String ratesHash;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdOn;
 
@@ -0,0 +1,4 @@
+package com.narektm.exchangeratesapi.persistence.projection;
+
+public record CurrencyRatesHash(String code, String ratesHash) {
+}
@@ -0,0 +1,115 @@
+package com.narektm.exchangeratesapi.persistence.repository;
+
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores one row per day and currency pair in {@code currency_rate_history}, which is partitioned by month.
+ * The partitions are created on demand before the first write into a month.
+ */
+@Repository
+public class CurrencyRateHistoryRepository {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String CREATE_PARTITION_SQL = """
+            CREATE TABLE IF NOT EXISTS currency_rate_history_%1$tY_%1$tm
+                PARTITION OF currency_rate_history
+                FOR VALUES FROM ('%1$tF') TO ('%2$tF')
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO currency_rate_history (rate_date, base_code, quote_code, rate)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (base_code, quote_code, rate_date) DO UPDATE
+                SET rate = EXCLUDED.rate
+            """;
+
+    private static final String INSERT_IF_ABSENT_SQL = """
+            INSERT INTO currency_rate_history (rate_date, base_code, quote_code, rate)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (base_code, quote_code, rate_date) DO NOTHING
+            """;
+
+    private static final String SELECT_SQL = """
+            SELECT rate_date, quote_code, rate
+            FROM currency_rate_history
+            WHERE base_code = ?
+              AND rate_date BETWEEN ? AND ?
+            """;
+
+    private static final String QUOTE_CODE_CONDITION = " AND quote_code = ?";
+    private static final String ORDER_BY = " ORDER BY quote_code, rate_date";
+
+    private final Set<YearMonth> existingPartitions = ConcurrentHashMap.newKeySet();
+    private final JdbcTemplate jdbcTemplate;
+
+    public CurrencyRateHistoryRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void saveAll(LocalDate rateDate, Collection<ExchangeRatesResponse> exchangeRatesResponses) {
+        batchUpdate(UPSERT_SQL, rateDate, exchangeRatesResponses);
+    }
+
+    /**
+     * Inserts the rows of the pairs that have no row for the day yet and leaves the existing rows untouched.
+     */
+    public void saveAllIfAbsent(LocalDate rateDate, Collection<ExchangeRatesResponse> exchangeRatesResponses) {
+        batchUpdate(INSERT_IF_ABSENT_SQL, rateDate, exchangeRatesResponses);
+    }
+
+    private void batchUpdate(String sql, LocalDate rateDate, Collection<ExchangeRatesResponse> exchangeRatesResponses) {
+        createPartitionIfNotExists(YearMonth.from(rateDate));
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        Date sqlRateDate = Date.valueOf(rateDate);
+        exchangeRatesResponses.forEach(response -> response.rates().forEach((quoteCurrencyCode, rate) ->
+                batchArgs.add(new Object[]{sqlRateDate, response.baseCurrencyCode(), quoteCurrencyCode, rate})));
+
+        for (int from = 0; from < batchArgs.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, batchArgs.subList(from, Math.min(from + BATCH_SIZE, batchArgs.size())));
+        }
+    }
+
+    /**
+     * Streams the history rows ordered by quote currency and date to the handler without materializing them.
+     * Must be called within a transaction, otherwise the PostgreSQL driver ignores the fetch size.
+     */
+    public void streamRates(String baseCurrencyCode,
+                            String quoteCurrencyCode,
+                            LocalDate from,
+                            LocalDate to,
+                            RowCallbackHandler rowCallbackHandler) {
+        JdbcTemplate streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+
+        if (quoteCurrencyCode == null) {
+            streamingJdbcTemplate.query(SELECT_SQL + ORDER_BY, rowCallbackHandler,
+                    baseCurrencyCode, Date.valueOf(from), Date.valueOf(to));
+        } else {
+            streamingJdbcTemplate.query(SELECT_SQL + QUOTE_CODE_CONDITION + ORDER_BY, rowCallbackHandler,
+                    baseCurrencyCode, Date.valueOf(from), Date.valueOf(to), quoteCurrencyCode);
+        }
+    }
+
+    private void createPartitionIfNotExists(YearMonth month) {
+        if (existingPartitions.contains(month)) {
+            return;
+        }
+        jdbcTemplate.execute(CREATE_PARTITION_SQL.formatted(month.atDay(1), month.plusMonths(1).atDay(1)));
+        existingPartitions.add(month);
+    }
+}
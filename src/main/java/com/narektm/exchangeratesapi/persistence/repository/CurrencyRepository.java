@@ -1,15 +1,39 @@
 package com.narektm.exchangeratesapi.persistence.repository;
 
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
 import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
+import com.narektm.exchangeratesapi.persistence.projection.CurrencyRatesHash;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
-public interface CurrencyRepository extends JpaRepository<CurrencyEntity, Long> {
+public interface CurrencyRepository extends JpaRepository<CurrencyEntity, Long>, CurrencyRepositoryCustom {
 
     @Query("SELECT code FROM CurrencyEntity")
     Set<String> getAllCodes();
 
+    @Query("SELECT new com.narektm.exchangeratesapi.persistence.projection.CurrencyRatesHash(c.code, c.ratesHash) "
+            + "FROM CurrencyEntity c")
+    List<CurrencyRatesHash> getAllRatesHashes();
+
     CurrencyEntity findByCode(String code);
+
+    /**
+     * Returns the next page of currencies ordered by code, straight in the cached format without managed
+     * entities. Paging by the last code seen keeps every page an index range scan.
+     */
+    @Query("SELECT new com.narektm.exchangeratesapi.dto.CurrencyDetailsDto("
+            + "c.code, c.rates, c.createdOn, c.updatedOn) "
+            + "FROM CurrencyEntity c WHERE c.code > :afterCode ORDER BY c.code")
+    List<CurrencyDetailsDto> findCurrencyDetailsAfter(@Param("afterCode") String afterCode, Pageable pageable);
+
+    @Query("SELECT new com.narektm.exchangeratesapi.dto.CurrencyDetailsDto("
+            + "c.code, c.rates, c.createdOn, c.updatedOn) "
+            + "FROM CurrencyEntity c WHERE c.code = :code")
+    Optional<CurrencyDetailsDto> findCurrencyDetailsByCode(@Param("code") String code);
 }
@@ -0,0 +1,17 @@
+package com.narektm.exchangeratesapi.persistence.repository;
+
+import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CurrencyRepositoryCustom {
+
+    /**
+     * Inserts the currencies or updates the rates of the existing ones in a single batched statement
+     * and a single transaction.
+     *
+     * @return the stored currencies
+     */
+    List<CurrencyEntity> upsertAll(Collection<CurrencyEntity> currencies);
+}
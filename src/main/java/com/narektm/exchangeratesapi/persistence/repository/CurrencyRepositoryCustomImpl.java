@@ -0,0 +1,72 @@
+package com.narektm.exchangeratesapi.persistence.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+public class CurrencyRepositoryCustomImpl implements CurrencyRepositoryCustom {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO currency (code, rates, rates_hash, created_on, updated_on)
+            VALUES (?, ?::jsonb, ?, ?, ?)
+            ON CONFLICT (code) DO UPDATE
+                SET rates      = EXCLUDED.rates,
+                    rates_hash = EXCLUDED.rates_hash,
+                    updated_on = EXCLUDED.updated_on
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CurrencyRepositoryCustomImpl(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional
+    public List<CurrencyEntity> upsertAll(Collection<CurrencyEntity> currencies) {
+        if (currencies.isEmpty()) {
+            return List.of();
+        }
+
+        List<Object[]> batchArgs = currencies.stream()
+                .map(currency -> new Object[]{
+                        currency.getCode(),
+                        toJson(currency),
+                        currency.getRatesHash(),
+                        Timestamp.valueOf(currency.getCreatedOn()),
+                        Timestamp.valueOf(currency.getUpdatedOn())})
+                .toList();
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+
+        List<String> codes = currencies.stream()
+                .map(CurrencyEntity::getCode)
+                .toList();
+        entityManager.clear();
+
+        return entityManager.createQuery("SELECT c FROM CurrencyEntity c WHERE c.code IN :codes", CurrencyEntity.class)
+                .setParameter("codes", codes)
+                .getResultList();
+    }
+
+    private String toJson(CurrencyEntity currency) {
+        try {
+            return objectMapper.writeValueAsString(currency.getRates());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize rates of currency with code %s"
+                    .formatted(currency.getCode()), e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.CrossRateProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Derives exchange rates for any base currency from the rates of a single pivot currency,
+ * e.g. USD -> GBP is calculated as (EUR -> GBP) / (EUR -> USD) when EUR is the pivot.
+ */
+@Component
+@Slf4j
+public class CrossRateCalculator {
+
+    private final CrossRateProperties properties;
+
+    public CrossRateCalculator(CrossRateProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public String getPivotCurrencyCode() {
+        return properties.getPivotCurrencyCode();
+    }
+
+    public Duration getPivotMaxAge() {
+        return properties.getPivotMaxAge();
+    }
+
+    public List<ExchangeRatesResponse> deriveAll(ExchangeRatesResponse pivotResponse, Collection<String> currencyCodes) {
+        return currencyCodes.stream()
+                .map(currencyCode -> derive(pivotResponse, currencyCode))
+                .flatMap(Optional::stream)
+                .toList();
+    }
+
+    public Optional<ExchangeRatesResponse> derive(ExchangeRatesResponse pivotResponse, String currencyCode) {
+        String pivotCurrencyCode = pivotResponse.baseCurrencyCode();
+        Map<String, BigDecimal> pivotRates = pivotResponse.rates();
+        if (pivotCurrencyCode.equals(currencyCode)) {
+            return Optional.of(pivotResponse);
+        }
+
+        BigDecimal pivotToBase = pivotRates.get(currencyCode);
+        if (pivotToBase == null || pivotToBase.signum() == 0) {
+            log.warn("Cannot derive exchange rates for currency with code {} from pivot currency {}",
+                    currencyCode, pivotCurrencyCode);
+            return Optional.empty();
+        }
+
+        int scale = properties.getScale();
+        Map<String, BigDecimal> rates = new HashMap<>(pivotRates.size() + 1);
+        rates.put(pivotCurrencyCode, BigDecimal.ONE.divide(pivotToBase, scale, RoundingMode.HALF_EVEN));
+        pivotRates.forEach((quoteCurrencyCode, pivotToQuote) -> rates.put(quoteCurrencyCode,
+                quoteCurrencyCode.equals(currencyCode)
+                        ? BigDecimal.ONE
+                        : pivotToQuote.divide(pivotToBase, scale, RoundingMode.HALF_EVEN)));
+
+        return Optional.of(new ExchangeRatesResponse(currencyCode, rates));
+    }
+}
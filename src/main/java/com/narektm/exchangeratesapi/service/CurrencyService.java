@@ -1,21 +1,46 @@
 package com.narektm.exchangeratesapi.service;
 
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cache.RatesSnapshotFactory;
+import com.narektm.exchangeratesapi.cache.RejectedCurrencyCache;
+import com.narektm.exchangeratesapi.cluster.CurrencyChangeNotifier;
+import com.narektm.exchangeratesapi.cluster.RefreshLeaderElection;
+import com.narektm.exchangeratesapi.config.ReadThroughProperties;
+import com.narektm.exchangeratesapi.config.RefreshProperties;
+import com.narektm.exchangeratesapi.config.WarmUpProperties;
 import com.narektm.exchangeratesapi.converter.CurrencyConverter;
 import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
 import com.narektm.exchangeratesapi.dto.CurrencySummaryDto;
 import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.dto.RefreshSummary;
+import com.narektm.exchangeratesapi.dto.UpstreamUsage;
 import com.narektm.exchangeratesapi.exception.ExternalApiException;
 import com.narektm.exchangeratesapi.exception.NotFoundException;
+import com.narektm.exchangeratesapi.metrics.CurrencyMetrics;
 import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
 import com.narektm.exchangeratesapi.persistence.repository.CurrencyRepository;
+import com.narektm.exchangeratesapi.stream.RateUpdateBroadcaster;
+import com.narektm.exchangeratesapi.web.model.AddCurrenciesRequest;
 import com.narektm.exchangeratesapi.web.model.AddCurrencyRequest;
-import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -25,97 +50,621 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class CurrencyService {
 
-    private static final Map<String, CurrencyDetailsDto> EXCHANGE_RATES = new ConcurrentHashMap<>();
-    private static final int THREAD_POOL_SIZE = 5;
+    private static final AtomicReference<RatesSnapshot> EXCHANGE_RATES = new AtomicReference<>();
 
     private final CurrencyRepository currencyRepository;
     private final ExchangeRatesService exchangeRatesService;
     private final CurrencyConverter currencyConverter;
+    private final CrossRateCalculator crossRateCalculator;
+    private final RatesSnapshotFactory ratesSnapshotFactory;
+    private final RefreshProperties refreshProperties;
+    private final RateHistoryService rateHistoryService;
+    private final CurrencyMetrics currencyMetrics;
+    private final UpstreamUsageTracker upstreamUsageTracker;
+    private final WarmUpProperties warmUpProperties;
+    private final CurrencyChangeNotifier currencyChangeNotifier;
+    private final RefreshLeaderElection refreshLeaderElection;
+    private final RateUpdateBroadcaster rateUpdateBroadcaster;
+    private final ReadThroughProperties readThroughProperties;
+    private final RejectedCurrencyCache rejectedCurrencyCache;
+
+    private final SingleFlight<String, CurrencyDetailsDto> addCurrencyFlights = new SingleFlight<>();
+    private final SingleFlight<String, ExchangeRatesResponse> fetchFlights = new SingleFlight<>();
+    private final SingleFlight<String, RatesSnapshot> loadCurrencyFlights = new SingleFlight<>();
+    private final SingleFlight<String, RatesSnapshot> readThroughFlights = new SingleFlight<>();
+    private final Set<String> refreshingCurrencies = ConcurrentHashMap.newKeySet();
+    // unchanged rates keep their updatedOn, so this is when the rates were last confirmed by a fetch
+    private final Map<String, Instant> verifiedOn = new ConcurrentHashMap<>();
+
+    private volatile PivotRates pivotRates;
+    private volatile RefreshSummary lastRefreshSummary;
+    private volatile boolean warmedUp;
 
     public CurrencyService(CurrencyRepository currencyRepository,
-                           ExternalExchangeRatesService exchangeRatesService,
-                           CurrencyConverter currencyConverter) {
+                           ExchangeRatesService exchangeRatesService,
+                           CurrencyConverter currencyConverter,
+                           CrossRateCalculator crossRateCalculator,
+                           RatesSnapshotFactory ratesSnapshotFactory,
+                           RefreshProperties refreshProperties,
+                           RateHistoryService rateHistoryService,
+                           CurrencyMetrics currencyMetrics,
+                           UpstreamUsageTracker upstreamUsageTracker,
+                           WarmUpProperties warmUpProperties,
+                           CurrencyChangeNotifier currencyChangeNotifier,
+                           RefreshLeaderElection refreshLeaderElection,
+                           RateUpdateBroadcaster rateUpdateBroadcaster,
+                           ReadThroughProperties readThroughProperties,
+                           RejectedCurrencyCache rejectedCurrencyCache) {
         this.currencyRepository = currencyRepository;
         this.exchangeRatesService = exchangeRatesService;
         this.currencyConverter = currencyConverter;
+        this.crossRateCalculator = crossRateCalculator;
+        this.ratesSnapshotFactory = ratesSnapshotFactory;
+        this.refreshProperties = refreshProperties;
+        this.rateHistoryService = rateHistoryService;
+        this.currencyMetrics = currencyMetrics;
+        this.upstreamUsageTracker = upstreamUsageTracker;
+        this.warmUpProperties = warmUpProperties;
+        this.currencyChangeNotifier = currencyChangeNotifier;
+        this.refreshLeaderElection = refreshLeaderElection;
+        this.rateUpdateBroadcaster = rateUpdateBroadcaster;
+        this.readThroughProperties = readThroughProperties;
+        this.rejectedCurrencyCache = rejectedCurrencyCache;
+        EXCHANGE_RATES.set(ratesSnapshotFactory.empty());
+        currencyMetrics.registerSnapshotGauges(this::getRatesSnapshot);
+    }
+
+    public RatesSnapshot getRatesSnapshot() {
+        return EXCHANGE_RATES.get();
+    }
+
+    /**
+     * Returns the snapshot to serve the currency from. Until the warm-up completes, a currency missing from
+     * the snapshot is loaded from the database on its own, so it is served before the warm-up reaches it.
+     * With the read-through enabled, a currency missing from the snapshot or staler than allowed is looked up
+     * in the database and then in the external API, see {@link #readThrough(String)}.
+     */
+    public RatesSnapshot getRatesSnapshot(String currencyCode) {
+        RatesSnapshot ratesSnapshot = getRatesSnapshot();
+        CurrencyDetailsDto cachedCurrencyDetailsDto = ratesSnapshot.currencies().get(currencyCode);
+        if (readThroughProperties.isEnabled()) {
+            return cachedCurrencyDetailsDto == null
+                    || isStaleInMemory(cachedCurrencyDetailsDto)
+                    ? readThrough(currencyCode)
+                    : ratesSnapshot;
+        }
+        if (warmedUp || cachedCurrencyDetailsDto != null) {
+            return ratesSnapshot;
+        }
+
+        return loadCurrencyFlights.execute(currencyCode, () ->
+                currencyRepository.findCurrencyDetailsByCode(currencyCode)
+                        .map(currencyDetailsDto -> publishMissingExchangeRates(List.of(currencyDetailsDto)))
+                        .orElseGet(this::getRatesSnapshot));
+    }
+
+    /**
+     * Loads the currency from the database, unless its stored rates are staler than allowed too, in which case
+     * they are fetched from the external API and stored, so the currency is tracked from now on. A code the
+     * external API rejects is remembered for a while, and a lookup of it is answered from the snapshot, i.e.
+     * with 404, without asking again. While the external API is unavailable, stale rates are served rather
+     * than none.
+     */
+    private RatesSnapshot readThrough(String currencyCode) {
+        if (rejectedCurrencyCache.isRejected(currencyCode)) {
+            currencyMetrics.recordReadThrough("rejected");
+            return getRatesSnapshot();
+        }
+
+        return readThroughFlights.execute(currencyCode, () -> {
+            Optional<CurrencyDetailsDto> storedCurrencyDetailsDto =
+                    currencyRepository.findCurrencyDetailsByCode(currencyCode);
+            if (storedCurrencyDetailsDto.isPresent()
+                    && !isStale(storedCurrencyDetailsDto.get(), readThroughProperties.getDatabaseMaxAge())) {
+                currencyMetrics.recordReadThrough("database");
+                return publishNewerExchangeRates(List.of(storedCurrencyDetailsDto.get()));
+            }
+
+            try {
+                RatesSnapshot ratesSnapshot = fetchAndStoreCurrency(currencyCode);
+                currencyMetrics.recordReadThrough("upstream");
+                return ratesSnapshot;
+            } catch (RestClientResponseException e) {
+                if (isRejectedByUpstream(e)) {
+                    log.info("The external API rejected currency with code {}, exception message: {}",
+                            currencyCode, e.getMessage());
+                    rejectedCurrencyCache.reject(currencyCode);
+                    currencyMetrics.recordReadThrough("rejected");
+                } else {
+                    logReadThroughFailure(currencyCode, e);
+                }
+            } catch (RuntimeException e) {
+                logReadThroughFailure(currencyCode, e);
+            }
+
+            return storedCurrencyDetailsDto
+                    .map(currencyDetailsDto -> publishNewerExchangeRates(List.of(currencyDetailsDto)))
+                    .orElseGet(this::getRatesSnapshot);
+        });
+    }
+
+    private RatesSnapshot fetchAndStoreCurrency(String currencyCode) {
+        log.info("Reading through currency with code {} from the external API...", currencyCode);
+        ExchangeRatesResponse response = fetchOrDeriveExchangeRates(currencyCode);
+        markVerified(List.of(response));
+
+        // the currency may be stored already, with stale rates, or be added by another instance in the meantime
+        long startNanos = System.nanoTime();
+        List<CurrencyDetailsDto> storedCurrencies =
+                currencyRepository.upsertAll(List.of(currencyConverter.toCurrencyEntity(response))).stream()
+                        .map(currencyConverter::toCurrencyDetailsDto)
+                        .toList();
+        currencyMetrics.recordPersist("upsert", startNanos);
+        RatesSnapshot ratesSnapshot = publishExchangeRates(storedCurrencies);
+        currencyChangeNotifier.notifyChanged(storedCurrencies);
+        recordHistory(List.of(response));
+
+        return ratesSnapshot;
+    }
+
+    private void logReadThroughFailure(String currencyCode, RuntimeException e) {
+        log.warn("Failed to read through currency with code {}, exception message: {}", currencyCode, e.getMessage());
+        currencyMetrics.recordReadThrough("failed");
+    }
+
+    /**
+     * Only the statuses that blame the code are held against it. Other client errors, e.g. a revoked API key or
+     * an exhausted quota, say nothing about the code and would otherwise blacklist valid codes for the whole TTL.
+     */
+    private static boolean isRejectedByUpstream(RestClientResponseException e) {
+        return e.getStatusCode().isSameCodeAs(HttpStatus.BAD_REQUEST)
+                || e.getStatusCode().isSameCodeAs(HttpStatus.NOT_FOUND)
+                || e.getStatusCode().isSameCodeAs(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    /**
+     * Cached rates are stale once they were neither changed nor confirmed unchanged by a fetch within the max age,
+     * so a currency whose rates stay the same, e.g. over a weekend, is not read through on every lookup.
+     */
+    private boolean isStaleInMemory(CurrencyDetailsDto currencyDetailsDto) {
+        Duration maxAge = readThroughProperties.getMemoryMaxAge();
+        if (maxAge == null) {
+            return false;
+        }
+
+        Instant lastVerifiedOn = currencyDetailsDto.updatedOn().toInstant(ZoneOffset.UTC);
+        Instant currencyVerifiedOn = verifiedOn.get(currencyDetailsDto.code());
+        if (currencyVerifiedOn != null && currencyVerifiedOn.isAfter(lastVerifiedOn)) {
+            lastVerifiedOn = currencyVerifiedOn;
+        }
+
+        return lastVerifiedOn.isBefore(Instant.now().minus(maxAge));
+    }
+
+    private void markVerified(List<ExchangeRatesResponse> responses) {
+        Instant now = Instant.now();
+        responses.forEach(response -> verifiedOn.put(response.baseCurrencyCode(), now));
+    }
+
+    private static boolean isStale(CurrencyDetailsDto currencyDetailsDto, Duration maxAge) {
+        return maxAge != null
+                && currencyDetailsDto.updatedOn().isBefore(LocalDateTime.now(ZoneOffset.UTC).minus(maxAge));
+    }
+
+    /**
+     * Returns one snapshot to serve all the currencies from, loading the missing ones first like
+     * {@link #getRatesSnapshot(String)} does.
+     */
+    public RatesSnapshot getRatesSnapshot(Collection<String> currencyCodes) {
+        RatesSnapshot ratesSnapshot = getRatesSnapshot();
+        for (String currencyCode : currencyCodes) {
+            ratesSnapshot = getRatesSnapshot(currencyCode);
+        }
+
+        return ratesSnapshot;
     }
 
     public Set<CurrencySummaryDto> getAllCurrencies() {
-        return EXCHANGE_RATES.keySet().stream()
+        return getRatesSnapshot().currencies().keySet().stream()
                 .map(currencyConverter::toCurrencySummaryDto)
                 .collect(Collectors.toSet());
     }
 
     public CurrencyDetailsDto getCurrency(String currencyCode) {
-        return Optional.ofNullable(EXCHANGE_RATES.get(currencyCode))
-                .orElseThrow(() -> new NotFoundException("Currency with code %s not found".formatted(currencyCode)));
+        try {
+            return getRatesSnapshot(currencyCode).getCurrency(currencyCode);
+        } catch (NotFoundException e) {
+            currencyMetrics.recordCurrencyNotFound();
+            throw e;
+        }
     }
 
+    /**
+     * Concurrent requests to add the same currency share one upstream fetch and one insert, and all of them
+     * get the added currency.
+     */
     public CurrencyDetailsDto addCurrency(AddCurrencyRequest request) {
         String currencyCode = request.currencyCode();
-        if (EXCHANGE_RATES.containsKey(currencyCode)) {
+
+        return addCurrencyFlights.execute(currencyCode, () -> addNewCurrency(currencyCode));
+    }
+
+    private CurrencyDetailsDto addNewCurrency(String currencyCode) {
+        if (getRatesSnapshot().currencies().containsKey(currencyCode)) {
             throw new IllegalArgumentException("Currency with code %s already exists".formatted(currencyCode));
         }
 
         log.info("Adding a new currency with code {}...", currencyCode);
-        ExchangeRatesResponse response = fetchExchangeRates(currencyCode);
+        ExchangeRatesResponse response = fetchOrDeriveExchangeRates(currencyCode);
         CurrencyEntity currencyEntity = currencyConverter.toCurrencyEntity(response);
         CurrencyDetailsDto currencyDetailsDto = saveCurrency(currencyEntity);
+        recordHistory(List.of(response));
         log.info("Currency with code {} added successfully", currencyCode);
 
         return currencyDetailsDto;
     }
 
+    /**
+     * Adds all the currencies or none of them. Their rates are fetched in parallel and the currencies are stored
+     * in a single batched statement and transaction.
+     */
+    public List<CurrencyDetailsDto> addCurrencies(AddCurrenciesRequest request) {
+        Set<String> currencyCodes = new LinkedHashSet<>(Optional.ofNullable(request.currencyCodes())
+                .orElse(List.of()));
+        if (currencyCodes.isEmpty()) {
+            throw new IllegalArgumentException("No currency codes to add");
+        }
+        Map<String, CurrencyDetailsDto> currencies = getRatesSnapshot().currencies();
+        List<String> existingCurrencyCodes = currencyCodes.stream()
+                .filter(currencies::containsKey)
+                .toList();
+        if (!existingCurrencyCodes.isEmpty()) {
+            throw new IllegalArgumentException("Currencies with codes %s already exist"
+                    .formatted(existingCurrencyCodes));
+        }
+
+        log.info("Adding {} new currencies...", currencyCodes.size());
+        List<ExchangeRatesResponse> responses =
+                fetchExchangeRatesInParallel(currencyCodes, this::fetchOrDeriveExchangeRates);
+        Set<String> fetchedCurrencyCodes = responses.stream()
+                .map(ExchangeRatesResponse::baseCurrencyCode)
+                .collect(Collectors.toSet());
+        List<String> failedCurrencyCodes = currencyCodes.stream()
+                .filter(currencyCode -> !fetchedCurrencyCodes.contains(currencyCode))
+                .toList();
+        if (!failedCurrencyCodes.isEmpty()) {
+            throw new ExternalApiException("Something went wrong while fetching data for currencies with codes %s"
+                    .formatted(failedCurrencyCodes));
+        }
+
+        // a currency added by another instance in the meantime is updated instead, its rates are as fresh
+        long startNanos = System.nanoTime();
+        List<CurrencyEntity> savedCurrencies = currencyRepository.upsertAll(responses.stream()
+                .map(currencyConverter::toCurrencyEntity)
+                .toList());
+        currencyMetrics.recordPersist("upsert", startNanos);
+        List<CurrencyDetailsDto> addedCurrencies = savedCurrencies.stream()
+                .map(currencyConverter::toCurrencyDetailsDto)
+                .toList();
+        RatesSnapshot ratesSnapshot = publishExchangeRates(addedCurrencies);
+        currencyChangeNotifier.notifyChanged(addedCurrencies);
+        recordHistory(responses);
+        log.info("Currencies with codes {} added successfully", currencyCodes);
+
+        return addedCurrencies.stream()
+                .map(currencyDetailsDto -> ratesSnapshot.getCurrency(currencyDetailsDto.code()))
+                .toList();
+    }
+
     private CurrencyDetailsDto saveCurrency(CurrencyEntity currencyEntity) {
-        CurrencyEntity savedCurrencyEntity = currencyRepository.save(currencyEntity);
-        CurrencyDetailsDto currencyDetailsDto = currencyConverter.toCurrencyDetailsDto(savedCurrencyEntity);
-        EXCHANGE_RATES.put(currencyEntity.getCode(), currencyDetailsDto);
+        CurrencyDetailsDto currencyDetailsDto = persistCurrency(currencyEntity);
+        RatesSnapshot ratesSnapshot = publishExchangeRates(List.of(currencyDetailsDto));
+        currencyChangeNotifier.notifyChanged(List.of(currencyDetailsDto));
 
-        return currencyDetailsDto;
+        return ratesSnapshot.getCurrency(currencyDetailsDto.code());
+    }
+
+    private CurrencyDetailsDto persistCurrency(CurrencyEntity currencyEntity) {
+        long startNanos = System.nanoTime();
+        CurrencyEntity savedCurrencyEntity;
+        try {
+            savedCurrencyEntity = currencyRepository.save(currencyEntity);
+        } catch (DataIntegrityViolationException e) {
+            // another instance has added the currency in the meantime
+            throw new IllegalArgumentException(
+                    "Currency with code %s already exists".formatted(currencyEntity.getCode()), e);
+        } finally {
+            currencyMetrics.recordPersist("save", startNanos);
+        }
+
+        return currencyConverter.toCurrencyDetailsDto(savedCurrencyEntity);
+    }
+
+    /**
+     * Builds the next snapshot off to the side and swaps it in at once. Writers are serialized,
+     * readers never block and always see either the previous or the next snapshot as a whole.
+     * The subscribers are sent the changed rates in the order of the snapshots.
+     */
+    private synchronized RatesSnapshot publishExchangeRates(List<CurrencyDetailsDto> currencyDetailsDtos) {
+        RatesSnapshot previousRatesSnapshot = EXCHANGE_RATES.get();
+        RatesSnapshot ratesSnapshot = ratesSnapshotFactory.merge(previousRatesSnapshot, currencyDetailsDtos);
+        EXCHANGE_RATES.set(ratesSnapshot);
+        rateUpdateBroadcaster.broadcast(previousRatesSnapshot, ratesSnapshot,
+                currencyDetailsDtos.stream().map(CurrencyDetailsDto::code).toList());
+
+        return ratesSnapshot;
+    }
+
+    private synchronized RatesSnapshot publishMissingExchangeRates(List<CurrencyDetailsDto> currencyDetailsDtos) {
+        Map<String, CurrencyDetailsDto> currencies = EXCHANGE_RATES.get().currencies();
+        List<CurrencyDetailsDto> missingCurrencies = currencyDetailsDtos.stream()
+                .filter(currencyDetailsDto -> !currencies.containsKey(currencyDetailsDto.code()))
+                .toList();
+
+        return missingCurrencies.isEmpty() ? EXCHANGE_RATES.get() : publishExchangeRates(missingCurrencies);
+    }
+
+    private synchronized RatesSnapshot publishNewerExchangeRates(List<CurrencyDetailsDto> currencyDetailsDtos) {
+        Map<String, CurrencyDetailsDto> currencies = EXCHANGE_RATES.get().currencies();
+        List<CurrencyDetailsDto> newerCurrencies = currencyDetailsDtos.stream()
+                .filter(currencyDetailsDto -> isNewer(currencyDetailsDto.updatedOn(),
+                        currencies.get(currencyDetailsDto.code())))
+                .toList();
+
+        return newerCurrencies.isEmpty() ? EXCHANGE_RATES.get() : publishExchangeRates(newerCurrencies);
+    }
+
+    private static boolean isNewer(LocalDateTime updatedOn, CurrencyDetailsDto cachedCurrencyDetailsDto) {
+        return cachedCurrencyDetailsDto == null || cachedCurrencyDetailsDto.updatedOn().isBefore(updatedOn);
     }
 
-    @Scheduled(cron = "0 10 0 * * *", zone = "UTC") // every day at 00:10:00 UTC
+    /**
+     * Reloads a currency changed by another instance, unless the cached one is already at least as recent.
+     */
+    public void reloadCurrency(String currencyCode, LocalDateTime updatedOn) {
+        if (!isNewer(updatedOn, getRatesSnapshot().currencies().get(currencyCode))) {
+            return;
+        }
+
+        loadCurrencyFlights.execute(currencyCode, () ->
+                currencyRepository.findCurrencyDetailsByCode(currencyCode)
+                        .map(currencyDetailsDto -> publishNewerExchangeRates(List.of(currencyDetailsDto)))
+                        .orElseGet(this::getRatesSnapshot));
+    }
+
+    /**
+     * Reloads all currencies that are more recent in the database than in the cache, e.g. after changes
+     * made by other instances may have been missed.
+     */
+    public void reloadExchangeRates() {
+        log.info("Reloading EXCHANGE_RATES changed in database...");
+        int pageSize = warmUpProperties.getPageSize();
+        String lastCurrencyCode = "";
+        List<CurrencyDetailsDto> page;
+        do {
+            page = currencyRepository.findCurrencyDetailsAfter(lastCurrencyCode, PageRequest.ofSize(pageSize));
+            if (!page.isEmpty()) {
+                publishNewerExchangeRates(page);
+                lastCurrencyCode = page.getLast().code();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    // every day at 00:10:00 UTC by default, "-" disables it in favour of the tiered refresh
+    @Scheduled(cron = "${exchange.rates.refresh.cron:0 10 0 * * *}", zone = "UTC")
     public void updateExchangeRates() {
-        Set<String> allCodes = currencyRepository.getAllCodes();
-        log.info("Updating exchange rates...");
-        fetchExchangeRatesInParallel(allCodes)
-                .forEach(response -> {
-                    CurrencyEntity currencyEntity = currencyRepository.findByCode(response.baseCurrencyCode());
-                    currencyEntity.setRates(response.rates());
-                    currencyEntity.setUpdatedOn(LocalDateTime.now(ZoneId.of("UTC")));
-                    saveCurrency(currencyEntity);
-                });
-        log.info("Updated exchange rates");
+        // in the cluster mode only the leader refreshes, the others reload what it has changed
+        if (!refreshLeaderElection.isLeader()) {
+            log.debug("Skipping the exchange rates update, another instance is the refresh leader");
+            return;
+        }
+        updateExchangeRates(currencyCode -> true);
+    }
+
+    /**
+     * Refreshes the rates of the given currencies. Currencies that are being refreshed at the moment are skipped,
+     * so there is at most one refresh of a currency in flight.
+     */
+    public RefreshSummary updateExchangeRates(Set<String> currencyCodes) {
+        return updateExchangeRates(currencyCodes::contains);
+    }
+
+    private RefreshSummary updateExchangeRates(Predicate<String> currencyFilter) {
+        Map<String, String> ratesHashes = new HashMap<>();
+        currencyRepository.getAllRatesHashes().stream()
+                .filter(currencyRatesHash -> currencyFilter.test(currencyRatesHash.code()))
+                .filter(currencyRatesHash -> refreshingCurrencies.add(currencyRatesHash.code()))
+                .forEach(currencyRatesHash -> ratesHashes.put(currencyRatesHash.code(), currencyRatesHash.ratesHash()));
+        try {
+            return refreshExchangeRates(ratesHashes);
+        } finally {
+            refreshingCurrencies.removeAll(ratesHashes.keySet());
+        }
+    }
+
+    private RefreshSummary refreshExchangeRates(Map<String, String> ratesHashes) {
+        long startNanos = System.nanoTime();
+        log.info("Updating exchange rates of {} currencies...", ratesHashes.size());
+        List<ExchangeRatesResponse> responses;
+        UpstreamUsage upstreamUsage;
+        // the usage is counted per refresh, as several refreshes, additions and read-throughs can run at once
+        try (UpstreamUsageTracker.Scope usageScope = upstreamUsageTracker.startScope()) {
+            responses = crossRateCalculator.isEnabled()
+                    ? deriveExchangeRates(ratesHashes.keySet())
+                    : fetchExchangeRatesInParallel(ratesHashes.keySet(), this::fetchExchangeRates);
+            upstreamUsage = usageScope.getUsage();
+        }
+        currencyMetrics.recordUpstreamUsage(upstreamUsage);
+        log.info("Fetched exchange rates of {} currencies, external API usage: {}", responses.size(), upstreamUsage);
+        markVerified(responses);
+
+        // unchanged rates (e.g. on weekends) are neither rewritten in the database nor republished
+        List<CurrencyEntity> changedCurrencies = new ArrayList<>();
+        List<ExchangeRatesResponse> changedResponses = new ArrayList<>();
+        List<ExchangeRatesResponse> unchangedResponses = new ArrayList<>();
+        for (ExchangeRatesResponse response : responses) {
+            CurrencyEntity currencyEntity = currencyConverter.toCurrencyEntity(response);
+            if (Objects.equals(currencyEntity.getRatesHash(), ratesHashes.get(currencyEntity.getCode()))) {
+                unchangedResponses.add(response);
+            } else {
+                changedCurrencies.add(currencyEntity);
+                changedResponses.add(response);
+            }
+        }
+        recordHistory(changedResponses, unchangedResponses);
+        RefreshSummary refreshSummary = new RefreshSummary(changedCurrencies.size(),
+                responses.size() - changedCurrencies.size(),
+                ratesHashes.size() - responses.size());
+        lastRefreshSummary = refreshSummary;
+
+        if (changedCurrencies.isEmpty()) {
+            currencyMetrics.recordRefresh(startNanos, refreshSummary);
+            log.info("No exchange rates were changed: {}", refreshSummary);
+            return refreshSummary;
+        }
+        long upsertStartNanos = System.nanoTime();
+        List<CurrencyEntity> upsertedCurrencies = currencyRepository.upsertAll(changedCurrencies);
+        currencyMetrics.recordPersist("upsert", upsertStartNanos);
+        List<CurrencyDetailsDto> updatedCurrencies = upsertedCurrencies.stream()
+                .map(currencyConverter::toCurrencyDetailsDto)
+                .toList();
+        RatesSnapshot ratesSnapshot = publishExchangeRates(updatedCurrencies);
+        currencyChangeNotifier.notifyChanged(updatedCurrencies);
+        currencyMetrics.recordRefresh(startNanos, refreshSummary);
+        log.info("Updated exchange rates: {}, published snapshot version {}", refreshSummary, ratesSnapshot.version());
+
+        return refreshSummary;
+    }
+
+    private void recordHistory(List<ExchangeRatesResponse> responses) {
+        recordHistory(responses, List.of());
+    }
+
+    private void recordHistory(List<ExchangeRatesResponse> changedResponses,
+                               List<ExchangeRatesResponse> unchangedResponses) {
+        LocalDate rateDate = LocalDate.now(ZoneOffset.UTC);
+        // the history is secondary to the latest rates, so a failure here must not fail the update
+        try {
+            if (!changedResponses.isEmpty()) {
+                rateHistoryService.recordRates(rateDate, changedResponses);
+            }
+            if (!unchangedResponses.isEmpty()) {
+                rateHistoryService.recordUnchangedRates(rateDate, unchangedResponses);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to record exchange rates history, exception message: {}", e.getMessage());
+        }
+    }
+
+    public RefreshSummary getLastRefreshSummary() {
+        return lastRefreshSummary;
+    }
+
+    private ExchangeRatesResponse fetchOrDeriveExchangeRates(String currencyCode) {
+        return crossRateCalculator.isEnabled()
+                ? deriveExchangeRates(currencyCode)
+                : fetchExchangeRates(currencyCode);
     }
 
     private ExchangeRatesResponse fetchExchangeRates(String currencyCode) {
-        return Optional.ofNullable(exchangeRatesService.fetchExchangeRates(currencyCode).getBody())
-                .orElseThrow(() -> new ExternalApiException(
-                        "Something went wrong while fetching data for currency with code %s"
-                                .formatted(currencyCode)));
+        return fetchFlights.execute(currencyCode, () -> fetchExchangeRatesFromUpstream(currencyCode));
     }
 
-    private List<ExchangeRatesResponse> fetchExchangeRatesInParallel(Set<String> currencyCodes) {
-        ExecutorService executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
-        new ThreadPoolExecutor(5, 19, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+    private ExchangeRatesResponse fetchExchangeRatesFromUpstream(String currencyCode) {
+        long startNanos = System.nanoTime();
+        boolean succeeded = false;
         try {
+            ExchangeRatesResponse response =
+                    Optional.ofNullable(exchangeRatesService.fetchExchangeRates(currencyCode).getBody())
+                            .orElseThrow(() -> new ExternalApiException(
+                                    "Something went wrong while fetching data for currency with code %s"
+                                            .formatted(currencyCode)));
+            succeeded = true;
+
+            return response;
+        } finally {
+            currencyMetrics.recordFetch(currencyCode, startNanos, succeeded);
+        }
+    }
+
+    private ExchangeRatesResponse deriveExchangeRates(String currencyCode) {
+        PivotRates cachedPivotRates = pivotRates;
+        ExchangeRatesResponse pivotResponse =
+                cachedPivotRates != null && cachedPivotRates.isYoungerThan(crossRateCalculator.getPivotMaxAge())
+                        ? cachedPivotRates.response()
+                        : fetchPivotExchangeRates();
+
+        // the pivot rates may not know the currency yet, so ask the external API directly
+        return crossRateCalculator.derive(pivotResponse, currencyCode)
+                .orElseGet(() -> fetchExchangeRates(currencyCode));
+    }
+
+    private List<ExchangeRatesResponse> deriveExchangeRates(Set<String> currencyCodes) {
+        ExchangeRatesResponse pivotResponse;
+        try {
+            pivotResponse = fetchPivotExchangeRates();
+        } catch (Exception e) {
+            log.warn("Failed to fetch exchange rates for pivot currency with code {}, exception message: {}",
+                    crossRateCalculator.getPivotCurrencyCode(), e.getMessage());
+            currencyMetrics.recordDroppedFetch(crossRateCalculator.getPivotCurrencyCode());
+            return List.of();
+        }
+
+        List<ExchangeRatesResponse> responses = crossRateCalculator.deriveAll(pivotResponse, currencyCodes);
+        if (responses.size() < currencyCodes.size()) {
+            Set<String> derivedCurrencyCodes = responses.stream()
+                    .map(ExchangeRatesResponse::baseCurrencyCode)
+                    .collect(Collectors.toSet());
+            currencyCodes.stream()
+                    .filter(currencyCode -> !derivedCurrencyCodes.contains(currencyCode))
+                    .forEach(currencyMetrics::recordDroppedFetch);
+        }
+
+        return responses;
+    }
+
+    private ExchangeRatesResponse fetchPivotExchangeRates() {
+        ExchangeRatesResponse pivotResponse = fetchExchangeRates(crossRateCalculator.getPivotCurrencyCode());
+        pivotRates = new PivotRates(pivotResponse, Instant.now());
+
+        return pivotResponse;
+    }
+
+    private List<ExchangeRatesResponse> fetchExchangeRatesInParallel(
+            Set<String> currencyCodes, Function<String, ExchangeRatesResponse> fetcher) {
+        Semaphore permits = new Semaphore(refreshProperties.getMaxConcurrentFetches());
+        try (ExecutorService executorService = newFetchExecutorService()) {
             List<CompletableFuture<ExchangeRatesResponse>> futures = currencyCodes.stream()
                     .map(currencyCode -> CompletableFuture.supplyAsync(() -> {
                         // to prevent exceptions in individual tasks from affecting the execution of other tasks
                         try {
-                            return fetchExchangeRates(currencyCode);
+                            permits.acquire();
+                            try {
+                                return fetcher.apply(currencyCode);
+                            } finally {
+                                permits.release();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            log.warn("Interrupted while fetching exchange rates for currency with code {}",
+                                    currencyCode);
+                            currencyMetrics.recordDroppedFetch(currencyCode);
+                            return null;
                         } catch (Exception e) {
                             log.warn("Failed to fetch exchange rates for currency with code {}, exception message: {}",
                                     currencyCode, e.getMessage());
+                            currencyMetrics.recordDroppedFetch(currencyCode);
                             return null;
                         }
                     }, executorService))
@@ -125,29 +674,90 @@ public class CurrencyService {
                     .map(CompletableFuture::join)
                     .filter(Objects::nonNull)
                     .toList();
-        } finally {
-            gracefullyShutDownExecutorService(executorService);
         }
     }
 
-    private static void gracefullyShutDownExecutorService(ExecutorService executorService) {
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(60, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
+    /**
+     * The fetches are almost pure I/O wait, so by default every fetch gets its own virtual thread
+     * and the concurrency is bounded by the permits rather than by the pool size.
+     */
+    private ExecutorService newFetchExecutorService() {
+        return refreshProperties.isVirtualThreads()
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(refreshProperties.getMaxConcurrentFetches());
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void startWarmUp() {
+        if (warmUpProperties.isAsync()) {
+            Thread.ofVirtual().name("rates-warm-up").start(this::warmUpExchangeRatesUntilDone);
+        } else {
+            // the instance cannot serve without the cached rates, so a failure here fails the startup
+            warmUpExchangeRates();
+        }
+    }
+
+    /**
+     * Retries the warm-up with exponential backoff until it succeeds, as the instance stays out of service
+     * until then.
+     */
+    void warmUpExchangeRatesUntilDone() {
+        Duration backoff = warmUpProperties.getInitialBackoff();
+        while (true) {
+            try {
+                warmUpExchangeRates();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to warm up EXCHANGE_RATES from database, retrying in {} ms",
+                        backoff.toMillis(), e);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while waiting to retry the warm-up");
+                return;
+            }
+            backoff = backoff.multipliedBy(2);
+            if (backoff.compareTo(warmUpProperties.getMaxBackoff()) > 0) {
+                backoff = warmUpProperties.getMaxBackoff();
             }
-        } catch (InterruptedException e) {
-            log.error("Interrupted!", e);
-            executorService.shutdownNow();
         }
     }
 
-    @PostConstruct
-    public void initExchangeRatesFromDb() {
-        log.info("Initializing EXCHANGE_RATES from database...");
-        currencyRepository.findAll().forEach(currencyEntity ->
-                EXCHANGE_RATES.put(currencyEntity.getCode(),
-                        currencyConverter.toCurrencyDetailsDto(currencyEntity)));
-        log.info("Initialization complete. {} currencies loaded.", EXCHANGE_RATES.size());
+    /**
+     * Loads all currencies from the database page by page. Currencies that have been loaded on a miss or
+     * refreshed in the meantime are kept, as they are at least as recent as the page.
+     */
+    public void warmUpExchangeRates() {
+        long startNanos = System.nanoTime();
+        log.info("Warming up EXCHANGE_RATES from database...");
+        int pageSize = warmUpProperties.getPageSize();
+        String lastCurrencyCode = "";
+        List<CurrencyDetailsDto> page;
+        do {
+            page = currencyRepository.findCurrencyDetailsAfter(lastCurrencyCode, PageRequest.ofSize(pageSize));
+            if (!page.isEmpty()) {
+                publishMissingExchangeRates(page);
+                lastCurrencyCode = page.getLast().code();
+            }
+        } while (page.size() == pageSize);
+        warmedUp = true;
+        log.info("Warm-up complete. {} currencies loaded in {} ms.", getRatesSnapshot().currencies().size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    public boolean isWarmedUp() {
+        return warmedUp;
+    }
+
+    /**
+     * The last fetched rates of the pivot currency.
+     */
+    private record PivotRates(ExchangeRatesResponse response, Instant fetchedOn) {
+
+        boolean isYoungerThan(Duration maxAge) {
+            return fetchedOn.plus(maxAge).isAfter(Instant.now());
+        }
     }
 }
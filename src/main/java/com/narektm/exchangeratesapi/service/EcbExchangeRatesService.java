@@ -0,0 +1,182 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.ProvidersProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.exception.ExternalApiException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fetches the daily reference rates of the European Central Bank. They are quoted against EUR only, so the
+ * rates of any other base currency are derived from them as cross rates.
+ * <p>
+ * The rates are published once per working day, so the parsed EUR rates are kept until the next publication
+ * and a refresh of many currencies downloads them once. Until the rates of the day are out, the rates of the
+ * previous working day are fetched again every retry interval.
+ */
+@Service
+public class EcbExchangeRatesService implements ExchangeRatesProvider {
+
+    public static final String NAME = "ecb";
+
+    private static final String EUR = "EUR";
+    private static final String CUBE = "Cube";
+    private static final Set<DayOfWeek> WEEKEND = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    private final ProvidersProperties properties;
+    private final CrossRateCalculator crossRateCalculator;
+    private final RestClient restClient;
+    private final XMLInputFactory xmlInputFactory;
+    private volatile CachedRates cachedRates;
+
+    public EcbExchangeRatesService(ProvidersProperties properties,
+                                   CrossRateCalculator crossRateCalculator,
+                                   RestClient.Builder restClientBuilder,
+                                   ObjectProvider<HttpComponentsClientHttpRequestFactory> upstreamRequestFactory) {
+        this.properties = properties;
+        this.crossRateCalculator = crossRateCalculator;
+        upstreamRequestFactory.ifAvailable(restClientBuilder::requestFactory);
+        this.restClient = restClientBuilder.build();
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        this.xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public ResponseEntity<ExchangeRatesResponse> fetchExchangeRates(String currencyCode) {
+        return fetchExchangeRates(currencyCode, Instant.now());
+    }
+
+    ResponseEntity<ExchangeRatesResponse> fetchExchangeRates(String currencyCode, Instant now) {
+        ExchangeRatesResponse euroRates = getEuroRates(now);
+
+        return crossRateCalculator.derive(euroRates, currencyCode)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ExternalApiException(
+                        "The ECB does not quote currency with code %s".formatted(currencyCode)));
+    }
+
+    private ExchangeRatesResponse getEuroRates(Instant now) {
+        CachedRates current = cachedRates;
+        if (current != null && now.isBefore(current.expiresOn())) {
+            return current.euroRates();
+        }
+
+        // one download for the currencies of a refresh that all find the rates expired
+        synchronized (this) {
+            current = cachedRates;
+            if (current != null && now.isBefore(current.expiresOn())) {
+                return current.euroRates();
+            }
+
+            ReferenceRates referenceRates = download();
+            current = new CachedRates(new ExchangeRatesResponse(EUR, Map.copyOf(referenceRates.rates())),
+                    expiresOn(referenceRates.date(), now));
+            cachedRates = current;
+
+            return current.euroRates();
+        }
+    }
+
+    private ReferenceRates download() {
+        byte[] body = restClient.get()
+                .uri(properties.getEcb().getUri())
+                .retrieve()
+                .body(byte[].class);
+        if (body == null) {
+            throw new ExternalApiException("The ECB returned no reference rates");
+        }
+
+        return parse(body);
+    }
+
+    /**
+     * The rates are kept until the next publication, unless they are older than the last publication, i.e. the
+     * rates of the day are late, in which case they are fetched again after the retry interval.
+     */
+    private Instant expiresOn(LocalDate ratesDate, Instant now) {
+        ProvidersProperties.Ecb ecb = properties.getEcb();
+        ZonedDateTime publication = now.atZone(ecb.getPublicationZone()).with(ecb.getPublicationTime());
+        ZonedDateTime lastPublication = publication;
+        while (lastPublication.toInstant().isAfter(now) || WEEKEND.contains(lastPublication.getDayOfWeek())) {
+            lastPublication = lastPublication.minusDays(1).with(ecb.getPublicationTime());
+        }
+        ZonedDateTime nextPublication = publication;
+        while (!nextPublication.toInstant().isAfter(now) || WEEKEND.contains(nextPublication.getDayOfWeek())) {
+            nextPublication = nextPublication.plusDays(1).with(ecb.getPublicationTime());
+        }
+
+        if (ratesDate != null && ratesDate.isBefore(lastPublication.toLocalDate())) {
+            Instant retryOn = now.plus(ecb.getRetryInterval());
+            return retryOn.isBefore(nextPublication.toInstant()) ? retryOn : nextPublication.toInstant();
+        }
+
+        return nextPublication.toInstant();
+    }
+
+    /**
+     * Reads the {@code <Cube currency="USD" rate="1.0876"/>} elements of the ECB envelope, and the date of the
+     * rates from the {@code <Cube time="2024-12-20">} element around them.
+     */
+    ReferenceRates parse(byte[] body) {
+        Map<String, BigDecimal> rates = new HashMap<>();
+        LocalDate date = null;
+        try {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(new ByteArrayInputStream(body));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamReader.START_ELEMENT && CUBE.equals(reader.getLocalName())) {
+                        String time = reader.getAttributeValue(null, "time");
+                        String currency = reader.getAttributeValue(null, "currency");
+                        String rate = reader.getAttributeValue(null, "rate");
+                        if (time != null) {
+                            date = LocalDate.parse(time);
+                        }
+                        if (currency != null && rate != null) {
+                            rates.put(currency, new BigDecimal(rate));
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException | DateTimeParseException e) {
+            throw new ExternalApiException("Failed to read the ECB reference rates: %s".formatted(e.getMessage()));
+        }
+        if (rates.isEmpty()) {
+            throw new ExternalApiException("The ECB returned no reference rates");
+        }
+        rates.put(EUR, BigDecimal.ONE);
+
+        return new ReferenceRates(date, rates);
+    }
+
+    record ReferenceRates(LocalDate date, Map<String, BigDecimal> rates) {
+    }
+
+    private record CachedRates(ExchangeRatesResponse euroRates, Instant expiresOn) {
+    }
+}
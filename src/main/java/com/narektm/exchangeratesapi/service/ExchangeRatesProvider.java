@@ -0,0 +1,8 @@
+package com.narektm.exchangeratesapi.service;
+
+/**
+ * A source of exchange rates that can be listed in {@code exchange.rates.providers.order} by its name.
+ */
+public interface ExchangeRatesProvider extends ExchangeRatesService {
+    String getName();
+}
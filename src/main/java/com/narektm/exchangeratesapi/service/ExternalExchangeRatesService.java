@@ -1,8 +1,12 @@
 package com.narektm.exchangeratesapi.service;
 
 import com.narektm.exchangeratesapi.config.ExternalExchangeRatesApiProperties;
+import com.narektm.exchangeratesapi.converter.ExchangeRatesResponseHttpMessageConverter;
+import com.narektm.exchangeratesapi.converter.ExchangeRatesResponseParser;
 import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -14,10 +18,17 @@ public class ExternalExchangeRatesService implements ExchangeRatesService {
     private final RestClient restClient;
 
     public ExternalExchangeRatesService(ExternalExchangeRatesApiProperties properties,
-                                        RestClient.Builder restClientBuilder) {
+                                        RestClient.Builder restClientBuilder,
+                                        ExchangeRatesResponseParser exchangeRatesResponseParser,
+                                        ObjectProvider<HttpComponentsClientHttpRequestFactory> upstreamRequestFactory) {
         this.properties = properties;
+        // the pooled upstream client, left out of client slice tests that bind the builder to a mock server
+        upstreamRequestFactory.ifAvailable(restClientBuilder::requestFactory);
+        // the rates are read by the streaming parser rather than by Jackson data binding
         this.restClient = restClientBuilder
                 .baseUrl(properties.getBaseUri())
+                .messageConverters(converters ->
+                        converters.addFirst(new ExchangeRatesResponseHttpMessageConverter(exchangeRatesResponseParser)))
                 .build();
     }
 
@@ -0,0 +1,61 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.ProvidersProperties;
+import com.narektm.exchangeratesapi.converter.ExchangeRatesResponseParser;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.exception.ExternalApiException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the rates of one base currency from a local file, e.g. as a last resort when no remote provider
+ * answers, or as a stand-in for them in development. The rates of other base currencies are derived from them
+ * as cross rates.
+ */
+@Service
+public class FileExchangeRatesService implements ExchangeRatesProvider {
+
+    public static final String NAME = "file";
+
+    private final ProvidersProperties properties;
+    private final CrossRateCalculator crossRateCalculator;
+    private final ExchangeRatesResponseParser exchangeRatesResponseParser;
+
+    public FileExchangeRatesService(ProvidersProperties properties,
+                                    CrossRateCalculator crossRateCalculator,
+                                    ExchangeRatesResponseParser exchangeRatesResponseParser) {
+        this.properties = properties;
+        this.crossRateCalculator = crossRateCalculator;
+        this.exchangeRatesResponseParser = exchangeRatesResponseParser;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public ResponseEntity<ExchangeRatesResponse> fetchExchangeRates(String currencyCode) {
+        Path path = properties.getFile().getPath();
+        if (path == null) {
+            throw new ExternalApiException("No rates file is configured");
+        }
+
+        ExchangeRatesResponse fileRates;
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            fileRates = exchangeRatesResponseParser.parse(inputStream);
+        } catch (IOException e) {
+            throw new ExternalApiException("Failed to read rates file %s: %s".formatted(path, e.getMessage()));
+        }
+
+        return crossRateCalculator.derive(fileRates, currencyCode)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ExternalApiException(
+                        "Rates file %s has no rate of currency with code %s".formatted(path, currencyCode)));
+    }
+}
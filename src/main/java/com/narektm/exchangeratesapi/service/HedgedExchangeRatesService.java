@@ -0,0 +1,223 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.ProvidersProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.exception.ExternalApiException;
+import com.narektm.exchangeratesapi.metrics.CurrencyMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fetches the rates from the configured providers in order of preference with hedged requests: the next
+ * provider is asked as well once the ones before it took longer than the usual latency of the primary provider,
+ * or failed, and the first valid answer is returned. Answers that arrive later are checked against it, and rates
+ * the providers disagree on are logged and counted.
+ */
+@Service
+@Primary
+@Slf4j
+public class HedgedExchangeRatesService implements ExchangeRatesService {
+
+    private final List<ExchangeRatesProvider> providers;
+    private final ProvidersProperties properties;
+    private final CurrencyMetrics currencyMetrics;
+    private final LatencyWindow primaryLatencies;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public HedgedExchangeRatesService(List<ExchangeRatesProvider> providers,
+                                      ProvidersProperties properties,
+                                      CurrencyMetrics currencyMetrics) {
+        Map<String, ExchangeRatesProvider> providersByName = providers.stream()
+                .collect(Collectors.toMap(ExchangeRatesProvider::getName, Function.identity()));
+        this.providers = properties.getOrder().stream()
+                .map(name -> {
+                    ExchangeRatesProvider provider = providersByName.get(name);
+                    if (provider == null) {
+                        throw new IllegalStateException("Unknown rates provider %s, expected one of %s"
+                                .formatted(name, providersByName.keySet()));
+                    }
+                    return provider;
+                })
+                .toList();
+        if (this.providers.isEmpty()) {
+            throw new IllegalStateException("At least one rates provider must be configured");
+        }
+        this.properties = properties;
+        this.currencyMetrics = currencyMetrics;
+        this.primaryLatencies = new LatencyWindow(properties.getLatencySamples(), properties.getMinLatencySamples());
+    }
+
+    @Override
+    public ResponseEntity<ExchangeRatesResponse> fetchExchangeRates(String currencyCode) {
+        if (providers.size() == 1) {
+            return providers.getFirst().fetchExchangeRates(currencyCode);
+        }
+
+        BlockingQueue<Attempt> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<Attempt>> attempts = new ArrayList<>(providers.size());
+        List<Attempt> failed = new ArrayList<>(providers.size());
+        attempts.add(start(0, currencyCode, completed));
+        try {
+            while (failed.size() < attempts.size()) {
+                Attempt attempt = attempts.size() < providers.size()
+                        ? completed.poll(hedgeDelay().toNanos(), TimeUnit.NANOSECONDS)
+                        : completed.take();
+                if (attempt == null) {
+                    ExchangeRatesProvider hedge = providers.get(attempts.size());
+                    log.debug("Hedging fetch of currency with code {} to provider {}", currencyCode, hedge.getName());
+                    currencyMetrics.recordHedgedFetch(hedge.getName());
+                    attempts.add(start(attempts.size(), currencyCode, completed));
+                    continue;
+                }
+
+                if (attempt.isValid(currencyCode)) {
+                    crossCheck(attempt, attempts);
+                    return attempt.response();
+                }
+                log.warn("Provider {} failed to fetch currency with code {}, exception message: {}",
+                        attempt.provider().getName(), currencyCode, attempt.failureMessage());
+                failed.add(attempt);
+                if (attempts.size() < providers.size()) {
+                    attempts.add(start(attempts.size(), currencyCode, completed));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException(
+                    "Interrupted while fetching data for currency with code %s".formatted(currencyCode));
+        }
+
+        // all providers failed, the primary's failure is the one callers know how to handle
+        Attempt primaryAttempt = failed.stream()
+                .filter(attempt -> attempt.provider() == providers.getFirst())
+                .findFirst()
+                .orElse(failed.getFirst());
+        if (primaryAttempt.failure() != null) {
+            throw primaryAttempt.failure();
+        }
+        throw new ExternalApiException("No provider returned valid data for currency with code %s: %s"
+                .formatted(currencyCode, primaryAttempt.failureMessage()));
+    }
+
+    /**
+     * The percentile of the recent latencies of the primary provider, bounded by the configured hedge delays.
+     */
+    Duration hedgeDelay() {
+        return primaryLatencies.percentile(properties.getHedgePercentile())
+                .map(latency -> latency.compareTo(properties.getMinHedgeDelay()) < 0
+                        ? properties.getMinHedgeDelay()
+                        : latency)
+                .filter(latency -> latency.compareTo(properties.getMaxHedgeDelay()) < 0)
+                .orElse(properties.getMaxHedgeDelay());
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private CompletableFuture<Attempt> start(int index, String currencyCode, BlockingQueue<Attempt> completed) {
+        ExchangeRatesProvider provider = providers.get(index);
+
+        return CompletableFuture.supplyAsync(() -> {
+            long startNanos = System.nanoTime();
+            Attempt attempt;
+            try {
+                attempt = new Attempt(provider, provider.fetchExchangeRates(currencyCode), null);
+            } catch (RuntimeException e) {
+                attempt = new Attempt(provider, null, e);
+            }
+            if (index == 0 && attempt.failure() == null) {
+                primaryLatencies.record(System.nanoTime() - startNanos);
+            }
+            completed.add(attempt);
+
+            return attempt;
+        }, executor);
+    }
+
+    /**
+     * Compares the answers of the providers still in flight with the accepted one once they arrive.
+     */
+    private void crossCheck(Attempt accepted, List<CompletableFuture<Attempt>> attempts) {
+        String currencyCode = accepted.response().getBody().baseCurrencyCode();
+        attempts.forEach(future -> future.thenAccept(attempt -> {
+            if (attempt != accepted && attempt.isValid(currencyCode)) {
+                compare(accepted, attempt);
+            }
+        }));
+    }
+
+    private void compare(Attempt accepted, Attempt other) {
+        Map<String, BigDecimal> acceptedRates = accepted.response().getBody().rates();
+        Map<String, BigDecimal> otherRates = other.response().getBody().rates();
+        BigDecimal maxDeviation = BigDecimal.valueOf(properties.getMaxDeviation());
+        List<String> disagreements = new ArrayList<>();
+        acceptedRates.forEach((quoteCurrencyCode, rate) -> {
+            BigDecimal otherRate = otherRates.get(quoteCurrencyCode);
+            if (otherRate != null && rate.subtract(otherRate).abs()
+                    .divide(rate, MathContext.DECIMAL64)
+                    .compareTo(maxDeviation) > 0) {
+                disagreements.add("%s %s vs %s".formatted(quoteCurrencyCode, rate, otherRate));
+            }
+        });
+        if (!disagreements.isEmpty()) {
+            String provider = accepted.provider().getName();
+            String otherProvider = other.provider().getName();
+            log.warn("Providers {} and {} disagree on {} rates of currency with code {}: {}", provider, otherProvider,
+                    disagreements.size(), accepted.response().getBody().baseCurrencyCode(), disagreements);
+            currencyMetrics.recordProviderDisagreement(provider, otherProvider);
+        }
+    }
+
+    private record Attempt(ExchangeRatesProvider provider,
+                           ResponseEntity<ExchangeRatesResponse> response,
+                           RuntimeException failure) {
+
+        /**
+         * A successful answer for the requested base currency with positive rates only.
+         */
+        boolean isValid(String currencyCode) {
+            if (failure != null || response == null || !response.getStatusCode().is2xxSuccessful()
+                    || response.getBody() == null) {
+                return false;
+            }
+            ExchangeRatesResponse body = response.getBody();
+
+            return currencyCode.equalsIgnoreCase(body.baseCurrencyCode())
+                    && body.rates() != null
+                    && !body.rates().isEmpty()
+                    && body.rates().values().stream().allMatch(rate -> rate != null && rate.signum() > 0);
+        }
+
+        String failureMessage() {
+            if (failure != null) {
+                return failure.getMessage();
+            }
+            if (response == null) {
+                return "no response";
+            }
+            return response.getBody() == null
+                    ? "status %s without rates".formatted(response.getStatusCode())
+                    : "invalid rates of base currency %s".formatted(response.getBody().baseCurrencyCode());
+        }
+    }
+}
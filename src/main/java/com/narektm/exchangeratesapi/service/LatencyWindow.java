@@ -0,0 +1,44 @@
+package com.narektm.exchangeratesapi.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The most recent latencies of a provider, kept in a ring buffer to calculate a percentile of them.
+ */
+final class LatencyWindow {
+
+    private final long[] latencyNanos;
+    private final int minSamples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int capacity, int minSamples) {
+        this.latencyNanos = new long[capacity];
+        this.minSamples = Math.min(minSamples, capacity);
+    }
+
+    synchronized void record(long nanos) {
+        latencyNanos[next] = nanos;
+        next = (next + 1) % latencyNanos.length;
+        count = Math.min(count + 1, latencyNanos.length);
+    }
+
+    /**
+     * The given percentile of the recorded latencies, empty until enough of them were recorded.
+     */
+    Optional<Duration> percentile(double percentile) {
+        long[] sorted;
+        synchronized (this) {
+            if (count < minSamples || count == 0) {
+                return Optional.empty();
+            }
+            sorted = Arrays.copyOf(latencyNanos, count);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+
+        return Optional.of(Duration.ofNanos(sorted[Math.clamp(index, 0, sorted.length - 1)]));
+    }
+}
@@ -0,0 +1,90 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.persistence.repository.CurrencyRateHistoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class RateHistoryService {
+
+    private final CurrencyRateHistoryRepository currencyRateHistoryRepository;
+    private final ObjectMapper objectMapper;
+    // the day each currency was last recorded for by this instance
+    private final Map<String, LocalDate> recordedOn = new ConcurrentHashMap<>();
+
+    public RateHistoryService(CurrencyRateHistoryRepository currencyRateHistoryRepository,
+                              ObjectMapper objectMapper) {
+        this.currencyRateHistoryRepository = currencyRateHistoryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional
+    public void recordRates(LocalDate rateDate, Collection<ExchangeRatesResponse> exchangeRatesResponses) {
+        currencyRateHistoryRepository.saveAll(rateDate, exchangeRatesResponses);
+        exchangeRatesResponses.forEach(response -> recordedOn.put(response.baseCurrencyCode(), rateDate));
+        log.info("Recorded history of {} currencies for {}", exchangeRatesResponses.size(), rateDate);
+    }
+
+    /**
+     * Records the rates that have not changed since they were last recorded, so every day still has its row.
+     * Currencies already recorded for the day are skipped and existing rows are not rewritten.
+     */
+    @Transactional
+    public void recordUnchangedRates(LocalDate rateDate, Collection<ExchangeRatesResponse> exchangeRatesResponses) {
+        List<ExchangeRatesResponse> unrecordedResponses = exchangeRatesResponses.stream()
+                .filter(response -> !rateDate.equals(recordedOn.get(response.baseCurrencyCode())))
+                .toList();
+        if (unrecordedResponses.isEmpty()) {
+            return;
+        }
+
+        currencyRateHistoryRepository.saveAllIfAbsent(rateDate, unrecordedResponses);
+        unrecordedResponses.forEach(response -> recordedOn.put(response.baseCurrencyCode(), rateDate));
+        log.info("Recorded history of {} unchanged currencies for {}", unrecordedResponses.size(), rateDate);
+    }
+
+    /**
+     * Writes the history as a JSON array of {@code {"date", "quote", "rate"}} objects while it is read
+     * from the database, so the memory use does not depend on the size of the range.
+     */
+    @Transactional(readOnly = true)
+    public void writeHistory(String baseCurrencyCode,
+                             String quoteCurrencyCode,
+                             LocalDate from,
+                             LocalDate to,
+                             OutputStream outputStream) throws IOException {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date %s is after the end date %s".formatted(from, to));
+        }
+
+        try (JsonGenerator jsonGenerator = objectMapper.getFactory().createGenerator(outputStream)) {
+            jsonGenerator.writeStartArray();
+            currencyRateHistoryRepository.streamRates(baseCurrencyCode, quoteCurrencyCode, from, to, resultSet -> {
+                try {
+                    jsonGenerator.writeStartObject();
+                    jsonGenerator.writeStringField("date", resultSet.getDate(1).toLocalDate().toString());
+                    jsonGenerator.writeStringField("quote", resultSet.getString(2));
+                    jsonGenerator.writeNumberField("rate", resultSet.getBigDecimal(3));
+                    jsonGenerator.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            jsonGenerator.writeEndArray();
+        }
+    }
+}
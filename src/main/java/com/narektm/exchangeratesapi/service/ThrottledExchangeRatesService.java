@@ -0,0 +1,171 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.FetchThrottleProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.exception.ExternalApiException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the requests of {@link ExternalExchangeRatesService} at the rate of a token bucket, retries
+ * 429 and 5xx responses and I/O errors with jittered exponential backoff, and stops calling the external API
+ * for a while once fetches keep failing.
+ */
+@Service
+@Slf4j
+public class ThrottledExchangeRatesService implements ExchangeRatesProvider {
+
+    public static final String NAME = "apilayer";
+
+    static final String REMAINING_MONTHLY_QUOTA = "X-RateLimit-Remaining-Month";
+
+    private final ExternalExchangeRatesService externalExchangeRatesService;
+    private final FetchThrottleProperties properties;
+    private final UpstreamUsageTracker upstreamUsageTracker;
+    private final TokenBucket tokenBucket;
+    private final CircuitBreaker circuitBreaker;
+
+    public ThrottledExchangeRatesService(ExternalExchangeRatesService externalExchangeRatesService,
+                                         FetchThrottleProperties properties,
+                                         UpstreamUsageTracker upstreamUsageTracker) {
+        this.externalExchangeRatesService = externalExchangeRatesService;
+        this.properties = properties;
+        this.upstreamUsageTracker = upstreamUsageTracker;
+        this.tokenBucket = new TokenBucket(properties.getBurst(), properties.getRequestsPerSecond());
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreakerFailureThreshold(),
+                properties.getCircuitBreakerOpenDuration());
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public ResponseEntity<ExchangeRatesResponse> fetchExchangeRates(String currencyCode) {
+        if (!properties.isEnabled()) {
+            upstreamUsageTracker.recordRequest();
+            return externalExchangeRatesService.fetchExchangeRates(currencyCode);
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            upstreamUsageTracker.recordRejected();
+            throw new ExternalApiException(
+                    "The external API is unavailable, skipped fetching data for currency with code %s"
+                            .formatted(currencyCode));
+        }
+
+        try {
+            ResponseEntity<ExchangeRatesResponse> response = fetchWithRetries(currencyCode);
+            circuitBreaker.onSuccess();
+            recordRemainingMonthlyQuota(response.getHeaders());
+
+            return response;
+        } catch (RestClientResponseException e) {
+            // any other client error means the external API is up, only the request was rejected
+            if (isRetryable(e)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    private ResponseEntity<ExchangeRatesResponse> fetchWithRetries(String currencyCode) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                tokenBucket.acquire();
+                upstreamUsageTracker.recordRequest();
+
+                return externalExchangeRatesService.fetchExchangeRates(currencyCode);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ExternalApiException(
+                        "Interrupted while fetching data for currency with code %s".formatted(currencyCode));
+            } catch (RestClientResponseException | ResourceAccessException e) {
+                if (e instanceof RestClientResponseException responseException) {
+                    if (responseException.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                        upstreamUsageTracker.recordRateLimited();
+                    }
+                    if (!isRetryable(responseException)) {
+                        throw e;
+                    }
+                }
+                if (attempt >= properties.getMaxAttempts()) {
+                    throw e;
+                }
+
+                Duration backoff = backoff(attempt, e);
+                log.info("Retrying fetch of currency with code {} in {} ms after attempt {} failed: {}",
+                        currencyCode, backoff.toMillis(), attempt, e.getMessage());
+                upstreamUsageTracker.recordRetry();
+                sleep(backoff, currencyCode);
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff with full jitter, unless a 429 response says when to retry.
+     */
+    Duration backoff(int attempt, RuntimeException e) {
+        Optional<Duration> retryAfter = e instanceof RestClientResponseException responseException
+                ? retryAfter(responseException)
+                : Optional.empty();
+        if (retryAfter.isPresent()) {
+            return retryAfter.get();
+        }
+
+        long ceilingMillis = Math.min(properties.getMaxBackoff().toMillis(),
+                properties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 30));
+
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(ceilingMillis + 1));
+    }
+
+    private Optional<Duration> retryAfter(RestClientResponseException e) {
+        return Optional.ofNullable(e.getResponseHeaders())
+                .map(headers -> headers.getFirst(HttpHeaders.RETRY_AFTER))
+                .filter(ThrottledExchangeRatesService::isNumber)
+                .map(retryAfter -> Duration.ofSeconds(Long.parseLong(retryAfter)))
+                .map(retryAfter -> retryAfter.compareTo(properties.getMaxBackoff()) > 0
+                        ? properties.getMaxBackoff()
+                        : retryAfter);
+    }
+
+    private static boolean isRetryable(RestClientResponseException e) {
+        return e.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS) || e.getStatusCode().is5xxServerError();
+    }
+
+    private void recordRemainingMonthlyQuota(HttpHeaders headers) {
+        String remaining = headers.getFirst(REMAINING_MONTHLY_QUOTA);
+        if (remaining != null && isNumber(remaining)) {
+            upstreamUsageTracker.recordRemainingMonthlyQuota(Long.parseLong(remaining));
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        return !value.isEmpty() && value.chars().allMatch(Character::isDigit);
+    }
+
+    private static void sleep(Duration backoff, String currencyCode) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(backoff.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException(
+                    "Interrupted while fetching data for currency with code %s".formatted(currencyCode));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.cluster.RefreshLeaderElection;
+import com.narektm.exchangeratesapi.config.RefreshProperties;
+import com.narektm.exchangeratesapi.dto.RefreshSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Refreshes every tracked currency at the interval of its tier. The first refresh of a currency is offset
+ * within its interval based on its code, so the currencies of a tier are spread over the interval instead of
+ * all being refreshed at the same moment.
+ * <p>
+ * With cross rates, every refresh costs one fetch of the pivot rates however many currencies it derives, so the
+ * refreshes are not spread but grouped instead: a refresh also takes the currencies that would be due before the
+ * next one, and there is at most one pivot fetch per shortest interval.
+ */
+@Component
+@Slf4j
+public class TieredRefreshScheduler {
+
+    private final CurrencyService currencyService;
+    private final RefreshProperties refreshProperties;
+    private final RefreshLeaderElection refreshLeaderElection;
+    private final CrossRateCalculator crossRateCalculator;
+    private final Map<String, Instant> nextRefreshTimes = new HashMap<>();
+
+    public TieredRefreshScheduler(CurrencyService currencyService,
+                                  RefreshProperties refreshProperties,
+                                  RefreshLeaderElection refreshLeaderElection,
+                                  CrossRateCalculator crossRateCalculator) {
+        this.currencyService = currencyService;
+        this.refreshProperties = refreshProperties;
+        this.refreshLeaderElection = refreshLeaderElection;
+        this.crossRateCalculator = crossRateCalculator;
+    }
+
+    // a fixed delay keeps the ticks from overlapping; the bound Duration is read, as Spring 6.1 parses only
+    // milliseconds or ISO-8601 here, not the 10s style of the properties
+    @Scheduled(fixedDelayString = "#{@refreshProperties.tick.toMillis()}")
+    public void refreshDueCurrencies() {
+        if (refreshProperties.isTieredEnabled() && refreshLeaderElection.isLeader()) {
+            refreshDueCurrencies(Instant.now());
+        }
+    }
+
+    synchronized void refreshDueCurrencies(Instant now) {
+        Map<String, Duration> intervals = getIntervals();
+        Set<String> trackedCurrencyCodes = currencyService.getRatesSnapshot().currencies().keySet();
+        nextRefreshTimes.keySet().retainAll(trackedCurrencyCodes);
+        boolean crossRates = crossRateCalculator.isEnabled();
+
+        Set<String> dueCurrencyCodes = new HashSet<>();
+        for (String currencyCode : trackedCurrencyCodes) {
+            Duration interval = intervals.getOrDefault(currencyCode, refreshProperties.getDefaultInterval());
+            Instant nextRefreshTime = nextRefreshTimes.computeIfAbsent(currencyCode,
+                    code -> crossRates ? now : now.plusMillis(firstRefreshOffsetMillis(code, interval)));
+            if (!nextRefreshTime.isAfter(now)) {
+                dueCurrencyCodes.add(currencyCode);
+            }
+        }
+        if (dueCurrencyCodes.isEmpty()) {
+            return;
+        }
+        if (crossRates) {
+            Instant nextPivotFetchTime = now.plus(getShortestInterval(intervals));
+            trackedCurrencyCodes.stream()
+                    .filter(currencyCode -> nextRefreshTimes.get(currencyCode).isBefore(nextPivotFetchTime))
+                    .forEach(dueCurrencyCodes::add);
+        }
+
+        try {
+            RefreshSummary refreshSummary = currencyService.updateExchangeRates(dueCurrencyCodes);
+            log.debug("Refreshed currencies {}: {}", dueCurrencyCodes, refreshSummary);
+        } finally {
+            // a failed refresh waits for the next interval as well, not to retry on every tick
+            dueCurrencyCodes.forEach(currencyCode -> nextRefreshTimes.put(currencyCode,
+                    now.plus(intervals.getOrDefault(currencyCode, refreshProperties.getDefaultInterval()))));
+        }
+    }
+
+    /**
+     * The hash codes of similar codes are close to each other, so they are scrambled by Fibonacci hashing first.
+     */
+    private static long firstRefreshOffsetMillis(String currencyCode, Duration interval) {
+        return Integer.toUnsignedLong(currencyCode.hashCode() * 0x9E3779B9) % Math.max(interval.toMillis(), 1);
+    }
+
+    private Duration getShortestInterval(Map<String, Duration> intervals) {
+        return intervals.values().stream()
+                .reduce(refreshProperties.getDefaultInterval(), (first, second) ->
+                        first.compareTo(second) <= 0 ? first : second);
+    }
+
+    private Map<String, Duration> getIntervals() {
+        Map<String, Duration> intervals = new HashMap<>();
+        refreshProperties.getTiers().values().forEach(tier ->
+                tier.getCurrencies().forEach(currencyCode -> intervals.put(currencyCode, tier.getInterval())));
+
+        return intervals;
+    }
+}
@@ -0,0 +1,100 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.dto.UpstreamUsage;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the requests sent to the external API per run, e.g. per refresh, so concurrent refreshes, added currencies
+ * and read-throughs do not count each other's requests. The scope of a run is inherited by the threads it starts,
+ * such as the refresh and hedging executors, as long as they are started while the scope is open.
+ */
+@Component
+public class UpstreamUsageTracker {
+
+    private final InheritableThreadLocal<Usage> currentUsage = new InheritableThreadLocal<>();
+    private final AtomicReference<Long> remainingMonthlyQuota = new AtomicReference<>();
+
+    void recordRequest() {
+        Usage usage = currentUsage.get();
+        if (usage != null) {
+            usage.requests.increment();
+        }
+    }
+
+    void recordRetry() {
+        Usage usage = currentUsage.get();
+        if (usage != null) {
+            usage.retries.increment();
+        }
+    }
+
+    void recordRateLimited() {
+        Usage usage = currentUsage.get();
+        if (usage != null) {
+            usage.rateLimited.increment();
+        }
+    }
+
+    void recordRejected() {
+        Usage usage = currentUsage.get();
+        if (usage != null) {
+            usage.rejected.increment();
+        }
+    }
+
+    void recordRemainingMonthlyQuota(long remaining) {
+        remainingMonthlyQuota.set(remaining);
+    }
+
+    /**
+     * Starts counting the requests sent by the current thread, and by the threads it starts, until the returned
+     * scope is closed.
+     */
+    public Scope startScope() {
+        Scope scope = new Scope(currentUsage.get());
+        currentUsage.set(scope.usage);
+
+        return scope;
+    }
+
+    public final class Scope implements AutoCloseable {
+
+        private final Usage usage = new Usage();
+        private final Usage previousUsage;
+
+        private Scope(Usage previousUsage) {
+            this.previousUsage = previousUsage;
+        }
+
+        /**
+         * Returns the usage since the scope was started.
+         */
+        public UpstreamUsage getUsage() {
+            return new UpstreamUsage(usage.requests.sum(),
+                    usage.retries.sum(),
+                    usage.rateLimited.sum(),
+                    usage.rejected.sum(),
+                    remainingMonthlyQuota.get());
+        }
+
+        @Override
+        public void close() {
+            if (previousUsage == null) {
+                currentUsage.remove();
+            } else {
+                currentUsage.set(previousUsage);
+            }
+        }
+    }
+
+    private static final class Usage {
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+}
@@ -0,0 +1,90 @@
+package com.narektm.exchangeratesapi.stream;
+
+import com.narektm.exchangeratesapi.dto.RateDelta;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A subscriber together with its pending events. The events are sent in order by at most one task at a time,
+ * so an idle subscriber holds no thread and a slow one only delays itself.
+ */
+final class RateSubscription {
+
+    private final SseEmitter emitter;
+    private final Set<String> bases;
+    private final Map<String, Set<String>> quotesByBase;
+    private final Queue<SseEmitter.SseEventBuilder> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingEventCount = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    RateSubscription(SseEmitter emitter, Set<String> bases, Map<String, Set<String>> quotesByBase) {
+        this.emitter = emitter;
+        this.bases = bases;
+        this.quotesByBase = quotesByBase;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    boolean isSubscribedTo(String base) {
+        return bases.contains(base) || quotesByBase.containsKey(base);
+    }
+
+    /**
+     * @return the part of the delta this subscriber asked for, with no rates if it asked for none of them
+     */
+    RateDelta select(RateDelta rateDelta) {
+        if (bases.contains(rateDelta.base())) {
+            return rateDelta;
+        }
+
+        Set<String> quotes = quotesByBase.getOrDefault(rateDelta.base(), Set.of());
+        Map<String, BigDecimal> rates = rateDelta.rates().entrySet().stream()
+                .filter(rate -> quotes.contains(rate.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        return new RateDelta(rateDelta.base(), rateDelta.version(), rates);
+    }
+
+    /**
+     * @return {@code false} if the subscriber has fallen too far behind to take the event
+     */
+    boolean enqueue(SseEmitter.SseEventBuilder event, int maxPendingEvents) {
+        if (pendingEventCount.incrementAndGet() > maxPendingEvents) {
+            pendingEventCount.decrementAndGet();
+            return false;
+        }
+        pendingEvents.add(event);
+
+        return true;
+    }
+
+    /**
+     * @return whether the caller has become the only one to send the pending events
+     */
+    boolean tryStartDraining() {
+        return !pendingEvents.isEmpty() && draining.compareAndSet(false, true);
+    }
+
+    SseEmitter.SseEventBuilder pollEvent() {
+        SseEmitter.SseEventBuilder event = pendingEvents.poll();
+        if (event != null) {
+            pendingEventCount.decrementAndGet();
+        }
+
+        return event;
+    }
+
+    void stopDraining() {
+        draining.set(false);
+    }
+}
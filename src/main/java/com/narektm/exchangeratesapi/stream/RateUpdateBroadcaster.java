@@ -0,0 +1,212 @@
+package com.narektm.exchangeratesapi.stream;
+
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.config.StreamProperties;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.dto.RateDelta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Pushes the rates that changed in a published snapshot to the subscribers of their base currencies or pairs.
+ * <p>
+ * The subscriptions are asynchronous requests, so an idle subscriber holds no thread. The events are queued
+ * per subscriber and sent on virtual threads, so publishing a snapshot never waits for a client, and a client
+ * that falls too far behind is disconnected instead of buffering without a bound.
+ */
+@Component
+@Slf4j
+public class RateUpdateBroadcaster {
+
+    private static final String RATES_EVENT = "rates";
+
+    private final StreamProperties streamProperties;
+    private final Executor senderExecutor;
+    private final Set<RateSubscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // orders the current rates of a new subscriber with the changes broadcast meanwhile
+    private final Object subscribeLock = new Object();
+
+    @Autowired
+    public RateUpdateBroadcaster(StreamProperties streamProperties) {
+        this(streamProperties, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    RateUpdateBroadcaster(StreamProperties streamProperties, Executor senderExecutor) {
+        this.streamProperties = streamProperties;
+        this.senderExecutor = senderExecutor;
+    }
+
+    /**
+     * Subscribes to all rates of the given bases and to the given quotes of other bases. The current rates are
+     * sent first, then only the rates that change. The current rates are read from the supplied snapshot once the
+     * subscription is registered, so no snapshot published in the meantime is missed.
+     *
+     * @return the emitter of the subscription, or empty if there are too many subscribers already
+     */
+    public Optional<SseEmitter> subscribe(Set<String> bases,
+                                          Map<String, Set<String>> quotesByBase,
+                                          Supplier<RatesSnapshot> ratesSnapshotSupplier) {
+        if (subscriptions.size() >= streamProperties.getMaxSubscribers()) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(streamProperties.getTimeout().toMillis());
+        subscribe(emitter, bases, quotesByBase, ratesSnapshotSupplier);
+
+        return Optional.of(emitter);
+    }
+
+    void subscribe(SseEmitter emitter,
+                   Set<String> bases,
+                   Map<String, Set<String>> quotesByBase,
+                   Supplier<RatesSnapshot> ratesSnapshotSupplier) {
+        RateSubscription subscription = new RateSubscription(emitter, Set.copyOf(bases), Map.copyOf(quotesByBase));
+        emitter.onCompletion(() -> subscriptions.remove(subscription));
+        emitter.onTimeout(() -> subscriptions.remove(subscription));
+        emitter.onError(e -> subscriptions.remove(subscription));
+
+        // a snapshot published before the read below is in the current rates, any later one is broadcast after them
+        synchronized (subscribeLock) {
+            subscriptions.add(subscription);
+            RatesSnapshot ratesSnapshot = ratesSnapshotSupplier.get();
+            ratesSnapshot.currencies().values().stream()
+                    .filter(currencyDetailsDto -> subscription.isSubscribedTo(currencyDetailsDto.code()))
+                    .map(currencyDetailsDto -> new RateDelta(currencyDetailsDto.code(), ratesSnapshot.version(),
+                            currencyDetailsDto.rates()))
+                    .forEach(rateDelta -> send(subscription, rateDelta));
+        }
+    }
+
+    /**
+     * Sends the rates of the given currencies that differ between the two snapshots. It is cheap when nobody
+     * is subscribed, as it is called on every publish.
+     */
+    public void broadcast(RatesSnapshot previous, RatesSnapshot current, Collection<String> currencyCodes) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+
+        List<RateDelta> rateDeltas = currencyCodes.stream()
+                .distinct()
+                .map(currencyCode -> toRateDelta(previous, current, currencyCode))
+                .filter(Objects::nonNull)
+                .toList();
+        synchronized (subscribeLock) {
+            for (RateSubscription subscription : subscriptions) {
+                rateDeltas.stream()
+                        .filter(rateDelta -> subscription.isSubscribedTo(rateDelta.base()))
+                        .forEach(rateDelta -> send(subscription, rateDelta));
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    // the bound Duration is read, as Spring 6.1 parses only milliseconds or ISO-8601 here
+    @Scheduled(fixedDelayString = "#{@streamProperties.heartbeat.toMillis()}")
+    public void sendHeartbeats() {
+        subscriptions.forEach(subscription -> send(subscription, SseEmitter.event().comment("heartbeat")));
+    }
+
+    @PreDestroy
+    public void close() {
+        subscriptions.forEach(subscription -> subscription.getEmitter().complete());
+        subscriptions.clear();
+        if (senderExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private static RateDelta toRateDelta(RatesSnapshot previous, RatesSnapshot current, String currencyCode) {
+        CurrencyDetailsDto currencyDetailsDto = current.currencies().get(currencyCode);
+        if (currencyDetailsDto == null) {
+            return null;
+        }
+
+        Map<String, BigDecimal> previousRates = Optional.ofNullable(previous.currencies().get(currencyCode))
+                .map(CurrencyDetailsDto::rates)
+                .orElse(Map.of());
+        Map<String, BigDecimal> changedRates = new HashMap<>();
+        currencyDetailsDto.rates().forEach((quoteCode, rate) -> {
+            BigDecimal previousRate = previousRates.get(quoteCode);
+            if (previousRate == null || previousRate.compareTo(rate) != 0) {
+                changedRates.put(quoteCode, rate);
+            }
+        });
+
+        return changedRates.isEmpty() ? null : new RateDelta(currencyCode, current.version(), changedRates);
+    }
+
+    private void send(RateSubscription subscription, RateDelta rateDelta) {
+        RateDelta selectedRateDelta = subscription.select(rateDelta);
+        if (selectedRateDelta.rates().isEmpty()) {
+            return;
+        }
+
+        send(subscription, SseEmitter.event()
+                .id(String.valueOf(selectedRateDelta.version()))
+                .name(RATES_EVENT)
+                .data(selectedRateDelta, MediaType.APPLICATION_JSON));
+    }
+
+    private void send(RateSubscription subscription, SseEmitter.SseEventBuilder event) {
+        if (!subscription.enqueue(event, streamProperties.getMaxPendingEvents())) {
+            log.debug("Disconnecting a rate subscriber that has fallen behind");
+            disconnect(subscription);
+            return;
+        }
+        drain(subscription);
+    }
+
+    private void drain(RateSubscription subscription) {
+        if (!subscription.tryStartDraining()) {
+            return;
+        }
+
+        senderExecutor.execute(() -> {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = subscription.pollEvent()) != null) {
+                    subscription.getEmitter().send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                // the client has gone away or the emitter has completed in the meantime
+                disconnect(subscription);
+            } finally {
+                subscription.stopDraining();
+            }
+            // an event may have been queued after the last poll but before draining stopped
+            if (subscriptions.contains(subscription)) {
+                drain(subscription);
+            }
+        });
+    }
+
+    private void disconnect(RateSubscription subscription) {
+        if (subscriptions.remove(subscription)) {
+            subscription.getEmitter().complete();
+        }
+    }
+}
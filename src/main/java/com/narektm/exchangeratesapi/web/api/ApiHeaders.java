@@ -0,0 +1,9 @@
+package com.narektm.exchangeratesapi.web.api;
+
+public final class ApiHeaders {
+
+    public static final String RATES_VERSION = "X-Rates-Version";
+
+    private ApiHeaders() {
+    }
+}
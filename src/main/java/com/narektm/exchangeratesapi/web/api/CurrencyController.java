@@ -1,40 +1,124 @@
 package com.narektm.exchangeratesapi.web.api;
 
+import com.narektm.exchangeratesapi.cache.EncodedResponse;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.config.BulkReadProperties;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
 import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
-import com.narektm.exchangeratesapi.dto.CurrencySummaryDto;
 import com.narektm.exchangeratesapi.service.CurrencyService;
+import com.narektm.exchangeratesapi.service.RateHistoryService;
+import com.narektm.exchangeratesapi.web.model.AddCurrenciesRequest;
 import com.narektm.exchangeratesapi.web.model.AddCurrencyRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1.0/currencies")
 public class CurrencyController {
 
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+    private static final String CBOR_ETAG_SUFFIX = "-cbor";
+
     private final CurrencyService currencyService;
+    private final RateHistoryService rateHistoryService;
+    private final CurrencyResponseEncoder currencyResponseEncoder;
+    private final BulkReadProperties bulkReadProperties;
 
-    public CurrencyController(CurrencyService currencyService) {
+    public CurrencyController(CurrencyService currencyService,
+                              RateHistoryService rateHistoryService,
+                              CurrencyResponseEncoder currencyResponseEncoder,
+                              BulkReadProperties bulkReadProperties) {
         this.currencyService = currencyService;
+        this.rateHistoryService = rateHistoryService;
+        this.currencyResponseEncoder = currencyResponseEncoder;
+        this.bulkReadProperties = bulkReadProperties;
     }
 
     @GetMapping
-    @ResponseStatus(HttpStatus.OK)
-    public Set<CurrencySummaryDto> getAllCurrencies() {
-        return currencyService.getAllCurrencies();
+    public ResponseEntity<byte[]> getAllCurrencies(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot();
+
+        return toResponseEntity(ratesSnapshot.encodedCurrencyList(), ratesSnapshot.version(), accept,
+                acceptEncoding);
+    }
+
+    /**
+     * Returns the given currencies from one snapshot, optionally with only the given quote currencies. Without
+     * quotes, the array is joined from the pre-encoded bodies of the currencies.
+     */
+    @GetMapping(params = "codes")
+    public ResponseEntity<byte[]> getCurrencies(
+            @RequestParam Set<String> codes,
+            @RequestParam(required = false) Set<String> quotes,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (codes.isEmpty() || codes.size() > bulkReadProperties.getMaxCodes()) {
+            return ResponseEntity.badRequest().build();
+        }
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot(codes);
+        EncodedResponse encodedResponse = quotes == null
+                ? currencyResponseEncoder.join(codes.stream()
+                        .map(ratesSnapshot::getEncodedCurrency)
+                        .toList())
+                : currencyResponseEncoder.encodeAll(codes.stream()
+                        .map(ratesSnapshot::getCurrency)
+                        .map(currencyDetailsDto -> withQuotes(currencyDetailsDto, quotes))
+                        .toList());
+
+        return toResponseEntity(encodedResponse, ratesSnapshot.version(), null, acceptEncoding);
     }
 
     @GetMapping("/{currencyCode}")
-    @ResponseStatus(HttpStatus.OK)
-    public CurrencyDetailsDto getCurrency(@PathVariable String currencyCode) {
-        return currencyService.getCurrency(currencyCode);
+    public ResponseEntity<byte[]> getCurrency(
+            @PathVariable String currencyCode,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot(currencyCode);
+
+        return toResponseEntity(ratesSnapshot.getEncodedCurrency(currencyCode), ratesSnapshot.version(), accept,
+                acceptEncoding);
+    }
+
+    /**
+     * Streams the daily rates of the currency in the given date range, optionally limited to one quote
+     * currency. The range is validated up front, as nothing can be changed once streaming has started.
+     */
+    @GetMapping("/{currencyCode}/history")
+    public ResponseEntity<StreamingResponseBody> getHistory(
+            @PathVariable String currencyCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String quote) {
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(outputStream -> rateHistoryService.writeHistory(currencyCode, quote, from, to, outputStream));
     }
 
     @PostMapping
@@ -42,4 +126,111 @@ public class CurrencyController {
     public CurrencyDetailsDto addCurrency(@RequestBody AddCurrencyRequest request) {
         return currencyService.addCurrency(request);
     }
+
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<CurrencyDetailsDto> addCurrencies(@RequestBody AddCurrenciesRequest request) {
+        return currencyService.addCurrencies(request);
+    }
+
+    private static CurrencyDetailsDto withQuotes(CurrencyDetailsDto currencyDetailsDto, Set<String> quotes) {
+        Map<String, BigDecimal> rates = currencyDetailsDto.rates().entrySet().stream()
+                .filter(rate -> quotes.contains(rate.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        return new CurrencyDetailsDto(currencyDetailsDto.code(), rates, currencyDetailsDto.createdOn(),
+                currencyDetailsDto.updatedOn());
+    }
+
+    /**
+     * Serves the pre-encoded bytes as is. A matching {@code If-None-Match} header is answered with
+     * 304 Not Modified by Spring MVC based on the ETag of the returned entity, which differs per variant, as the
+     * variants are different bytes. The compact CBOR variant is served only to clients asking for
+     * {@code application/cbor} explicitly, so wildcards keep getting JSON.
+     */
+    private static ResponseEntity<byte[]> toResponseEntity(EncodedResponse encodedResponse,
+                                                           long ratesVersion,
+                                                           String accept,
+                                                           String acceptEncoding) {
+        if (encodedResponse.cbor() != null && acceptsCbor(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .eTag(withSuffix(encodedResponse.eTag(), CBOR_ETAG_SUFFIX))
+                    .header(ApiHeaders.RATES_VERSION, String.valueOf(ratesVersion))
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(encodedResponse.cbor());
+        }
+
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ApiHeaders.RATES_VERSION, String.valueOf(ratesVersion))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptsGzip(acceptEncoding)) {
+            return responseBuilder
+                    .eTag(withSuffix(encodedResponse.eTag(), GZIP_ETAG_SUFFIX))
+                    .header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                    .body(encodedResponse.gzippedJson());
+        }
+
+        return responseBuilder
+                .eTag(encodedResponse.eTag())
+                .body(encodedResponse.json());
+    }
+
+    private static String withSuffix(String eTag, String suffix) {
+        return eTag.replaceFirst("\"$", suffix + "\"");
+    }
+
+    /**
+     * Returns whether the {@code Accept-Encoding} header lists gzip with a non-zero quality. An explicit gzip entry
+     * takes precedence over {@code *}.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        double gzipQuality = -1;
+        double anyQuality = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] codingParts = coding.split(";");
+            String name = codingParts[0].trim();
+            if (name.equalsIgnoreCase(GZIP)) {
+                gzipQuality = quality(codingParts);
+            } else if (name.equals("*")) {
+                anyQuality = quality(codingParts);
+            }
+        }
+
+        return (gzipQuality >= 0 ? gzipQuality : anyQuality) > 0;
+    }
+
+    private static double quality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String parameter = codingParts[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+
+        return 1;
+    }
+
+    private static boolean acceptsCbor(String accept) {
+        if (accept == null) {
+            return false;
+        }
+
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(MediaType.APPLICATION_CBOR::equalsTypeAndSubtype);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
 }
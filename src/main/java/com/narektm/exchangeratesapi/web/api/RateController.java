@@ -0,0 +1,72 @@
+package com.narektm.exchangeratesapi.web.api;
+
+import com.narektm.exchangeratesapi.cache.RateMatrix;
+import com.narektm.exchangeratesapi.cache.RateMatrixExportFormat;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1.0")
+public class RateController {
+
+    private final CurrencyService currencyService;
+
+    public RateController(CurrencyService currencyService) {
+        this.currencyService = currencyService;
+    }
+
+    /**
+     * Writes the exact rate as a plain JSON number, i.e. never in scientific notation, like the currency bodies
+     * and the conversions serve it.
+     */
+    @GetMapping("/rates/{from}/{to}")
+    public ResponseEntity<String> getExchangeRate(@PathVariable String from, @PathVariable String to) {
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot(from);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version()))
+                .body(ratesSnapshot.getExchangeRate(from, to).toPlainString());
+    }
+
+    /**
+     * Streams every rate of one snapshot in a single response, so batch consumers do not need to request
+     * each currency separately.
+     */
+    @GetMapping("/rates/export")
+    public ResponseEntity<StreamingResponseBody> exportRates(@RequestParam(defaultValue = "csv") String format) {
+        Optional<RateMatrixExportFormat> exportFormat = RateMatrixExportFormat.of(format);
+        if (exportFormat.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot();
+        RateMatrix rateMatrix = ratesSnapshot.rateMatrix();
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.get().getMediaType())
+                .header(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version()))
+                .body(outputStream -> exportFormat.get().write(rateMatrix, outputStream));
+    }
+
+    @GetMapping("/convert")
+    public ResponseEntity<BigDecimal> convert(@RequestParam String from,
+                                              @RequestParam String to,
+                                              @RequestParam BigDecimal amount) {
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot(from);
+
+        return ResponseEntity.ok()
+                .header(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version()))
+                .body(ratesSnapshot.convert(from, to, amount));
+    }
+}
@@ -0,0 +1,62 @@
+package com.narektm.exchangeratesapi.web.api;
+
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import com.narektm.exchangeratesapi.stream.RateUpdateBroadcaster;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1.0/rates")
+public class RateStreamController {
+
+    private static final String PAIR_SEPARATOR = "/";
+
+    private final CurrencyService currencyService;
+    private final RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    public RateStreamController(CurrencyService currencyService, RateUpdateBroadcaster rateUpdateBroadcaster) {
+        this.currencyService = currencyService;
+        this.rateUpdateBroadcaster = rateUpdateBroadcaster;
+    }
+
+    /**
+     * Streams the rates of the given bases, e.g. {@code USD}, and pairs, e.g. {@code USD/EUR}, as server-sent
+     * events. The current rates come first, then only the rates that change, each event carrying the snapshot
+     * version it was published in.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamRates(@RequestParam(defaultValue = "") Set<String> bases,
+                                                  @RequestParam(defaultValue = "") Set<String> pairs) {
+        Set<String> baseCodes = new HashSet<>(bases);
+        baseCodes.remove("");
+        Map<String, Set<String>> quotesByBase = new HashMap<>();
+        for (String pair : pairs) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            String[] codes = pair.split(PAIR_SEPARATOR, -1);
+            if (codes.length != 2 || codes[0].isEmpty() || codes[1].isEmpty()) {
+                return ResponseEntity.badRequest().build();
+            }
+            quotesByBase.computeIfAbsent(codes[0], base -> new HashSet<>()).add(codes[1]);
+        }
+        if (baseCodes.isEmpty() && quotesByBase.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return rateUpdateBroadcaster.subscribe(baseCodes, quotesByBase, currencyService::getRatesSnapshot)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -0,0 +1,6 @@
+package com.narektm.exchangeratesapi.web.model;
+
+import java.util.List;
+
+public record AddCurrenciesRequest(List<String> currencyCodes) {
+}
@@ -0,0 +1,2 @@
+ALTER TABLE currency
+    ADD COLUMN IF NOT EXISTS rates_hash VARCHAR(64)
@@ -0,0 +1,8 @@
+CREATE TABLE IF NOT EXISTS currency_rate_history
+(
+    rate_date  DATE       NOT NULL,
+    base_code  VARCHAR(3) NOT NULL,
+    quote_code VARCHAR(3) NOT NULL,
+    rate       NUMERIC    NOT NULL,
+    CONSTRAINT pk_currency_rate_history PRIMARY KEY (base_code, quote_code, rate_date)
+) PARTITION BY RANGE (rate_date)
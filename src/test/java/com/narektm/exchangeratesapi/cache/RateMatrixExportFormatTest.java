@@ -0,0 +1,90 @@
+package com.narektm.exchangeratesapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateMatrixExportFormatTest {
+
+    private static final String USD = "USD";
+    private static final String EUR = "EUR";
+    private static final String GBP = "GBP";
+
+    private final RateMatrix rateMatrix = RateMatrix.of(Map.of(
+            USD, Map.of(EUR, new BigDecimal("0.8"), GBP, new BigDecimal("0.64"))));
+
+    @Test
+    void csv_shouldWriteOneLinePerKnownRate() throws IOException {
+        String csv = new String(export(RateMatrixExportFormat.CSV), StandardCharsets.UTF_8);
+
+        assertThat(csv.lines()).containsExactlyInAnyOrder("base,quote,rate", "USD,EUR,0.8", "USD,GBP,0.64");
+    }
+
+    @Test
+    void ndjson_shouldWriteOneLinePerBase() throws IOException {
+        String ndjson = new String(export(RateMatrixExportFormat.NDJSON), StandardCharsets.UTF_8);
+
+        assertThat(ndjson.lines()).hasSize(1)
+                .first()
+                .satisfies(line -> assertThat(line)
+                        .startsWith("{\"base\":\"USD\",\"rates\":{")
+                        .contains("\"EUR\":0.8", "\"GBP\":0.64"));
+    }
+
+    @Test
+    void binary_shouldWriteLengthPrefixedCodesAndDoubles() throws IOException {
+        DataInputStream dataInput = new DataInputStream(new ByteArrayInputStream(export(RateMatrixExportFormat.BINARY)));
+
+        String[] codes = readCodes(dataInput);
+        assertThat(codes).containsExactly(rateMatrix.code(0), rateMatrix.code(1), rateMatrix.code(2));
+        assertThat(dataInput.readInt()).isEqualTo(1);
+        int baseIndex = dataInput.readInt();
+        assertThat(codes[baseIndex]).isEqualTo(USD);
+        for (int quoteIndex = 0; quoteIndex < codes.length; quoteIndex++) {
+            assertThat(dataInput.readDouble()).isEqualTo(rateMatrix.rate(baseIndex, quoteIndex));
+        }
+        assertThat(dataInput.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void binary_shouldWriteExtraCodesOfOtherLengthsWhole() throws IOException {
+        RateMatrix extraCodesMatrix = RateMatrix.of(Map.of(
+                "USDT", Map.of(USD, new BigDecimal("1.0002"), "XX", BigDecimal.ONE)));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        RateMatrixExportFormat.BINARY.write(extraCodesMatrix, outputStream);
+
+        String[] codes = readCodes(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+
+        assertThat(codes).containsExactlyInAnyOrder("USDT", USD, "XX");
+    }
+
+    @Test
+    void of_shouldResolveFormatIgnoringCase() {
+        assertThat(RateMatrixExportFormat.of("ndjson")).contains(RateMatrixExportFormat.NDJSON);
+        assertThat(RateMatrixExportFormat.of("xml")).isEmpty();
+    }
+
+    private static String[] readCodes(DataInputStream dataInput) throws IOException {
+        String[] codes = new String[dataInput.readInt()];
+        for (int index = 0; index < codes.length; index++) {
+            codes[index] = new String(dataInput.readNBytes(dataInput.readUnsignedByte()), StandardCharsets.US_ASCII);
+        }
+
+        return codes;
+    }
+
+    private byte[] export(RateMatrixExportFormat exportFormat) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportFormat.write(rateMatrix, outputStream);
+
+        return outputStream.toByteArray();
+    }
+}
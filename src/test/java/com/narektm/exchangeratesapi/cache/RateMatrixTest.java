@@ -0,0 +1,90 @@
+package com.narektm.exchangeratesapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateMatrixTest {
+
+    private static final String USD = "USD";
+    private static final String EUR = "EUR";
+    private static final String GBP = "GBP";
+
+    private final RateMatrix rateMatrix = RateMatrix.of(Map.of(
+            USD, Map.of(EUR, new BigDecimal("0.8"), GBP, new BigDecimal("0.64")),
+            EUR, Map.of(USD, new BigDecimal("1.25"))));
+
+    @Test
+    void rate_shouldReturnRateOfKnownPair() {
+        assertThat(rateMatrix.rate(USD, GBP)).isEqualTo(0.64);
+        assertThat(rateMatrix.rate(rateMatrix.indexOf(EUR), rateMatrix.indexOf(USD))).isEqualTo(1.25);
+    }
+
+    @Test
+    void rate_shouldReturnNaNForUnknownPair() {
+        assertThat(rateMatrix.rate(EUR, GBP)).isNaN();
+        assertThat(rateMatrix.rate(GBP, USD)).isNaN();
+        assertThat(rateMatrix.rate("AMD", USD)).isNaN();
+    }
+
+    @Test
+    void indexOf_shouldInternAllBaseAndQuoteCodes() {
+        assertThat(rateMatrix.size()).isEqualTo(3);
+        assertThat(rateMatrix.indexOf("AMD")).isEqualTo(-1);
+        assertThat(rateMatrix.containsBase(rateMatrix.indexOf(USD))).isTrue();
+        assertThat(rateMatrix.containsBase(rateMatrix.indexOf(GBP))).isFalse();
+    }
+
+    @Test
+    void rates_shouldReturnMapViewOfBaseRates() {
+        Map<String, BigDecimal> rates = rateMatrix.rates(rateMatrix.indexOf(USD));
+
+        assertThat(rates).hasSize(2)
+                .containsEntry(EUR, new BigDecimal("0.8"))
+                .containsEntry(GBP, new BigDecimal("0.64"))
+                .doesNotContainKey(USD);
+    }
+
+    @Test
+    void merge_shouldReplaceUpdatedRowsAndKeepTheOthers() {
+        RateMatrix merged = rateMatrix.merge(Map.of(
+                USD, Map.of(EUR, new BigDecimal("0.9")),
+                GBP, Map.of("AMD", new BigDecimal("500"))));
+
+        assertThat(merged.size()).isEqualTo(4);
+        assertThat(merged.rate(USD, EUR)).isEqualTo(0.9);
+        assertThat(merged.rate(USD, GBP)).isNaN();
+        assertThat(merged.rate(EUR, USD)).isEqualTo(1.25);
+        assertThat(merged.rates(merged.indexOf(GBP))).containsEntry("AMD", new BigDecimal("500"));
+        assertThat(rateMatrix.rate(USD, EUR)).isEqualTo(0.8);
+    }
+
+    @Test
+    void merge_shouldKeepIdsAndMissRatesOfNewCodesInOlderRows() {
+        RateMatrix merged = rateMatrix.merge(Map.of("AMD", Map.of(USD, new BigDecimal("0.0026"))));
+
+        assertThat(merged.indexOf(USD)).isEqualTo(rateMatrix.indexOf(USD));
+        assertThat(merged.indexOf("AMD")).isEqualTo(rateMatrix.size());
+        assertThat(merged.exactRate(EUR, "AMD")).isNull();
+        assertThat(merged.rate(EUR, "AMD")).isNaN();
+        assertThat(merged.rates(merged.indexOf(EUR))).containsOnlyKeys(USD);
+        assertThat(merged.rate("AMD", USD)).isEqualTo(0.0026);
+    }
+
+    @Test
+    void exactRate_shouldReturnRateExactlyAsStored() {
+        RateMatrix crossRates = RateMatrix.of(Map.of(
+                USD, Map.of(GBP, new BigDecimal("0.7988450433"), "AMD", new BigDecimal("387.1234567890123456789"))));
+
+        assertThat(crossRates.exactRate(USD, GBP)).isEqualTo(new BigDecimal("0.7988450433"));
+        assertThat(crossRates.exactRate(USD, "AMD")).isEqualTo(new BigDecimal("387.1234567890123456789"));
+        assertThat(crossRates.exactRate(GBP, USD)).isNull();
+        assertThat(crossRates.rates(crossRates.indexOf(USD)))
+                .containsEntry("AMD", new BigDecimal("387.1234567890123456789"));
+        assertThat(crossRates.rate(USD, "AMD")).isEqualTo(387.1234567890123456789);
+        assertThat(crossRates.rate(USD, GBP)).isEqualTo(0.7988450433);
+    }
+}
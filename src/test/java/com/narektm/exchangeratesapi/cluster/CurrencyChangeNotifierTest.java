@@ -0,0 +1,87 @@
+package com.narektm.exchangeratesapi.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.config.ClusterProperties;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CurrencyChangeNotifierTest {
+
+    private static final String USD = "USD";
+    private static final LocalDateTime UPDATED_ON = LocalDateTime.parse("2026-10-18T12:00:00.123456");
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final ClusterProperties clusterProperties = new ClusterProperties();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Test
+    void notifyChanged_shouldDoNothingOutsideClusterMode() {
+        new CurrencyChangeNotifier(clusterProperties, jdbcTemplate, objectMapper)
+                .notifyChanged(List.of(getCurrencyDetailsDto()));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void notifyChanged_shouldSendChangeThatListenerReloads() {
+        clusterProperties.setEnabled(true);
+        CurrencyChangeListener listener =
+                new CurrencyChangeListener(clusterProperties, null, currencyService, objectMapper);
+
+        new CurrencyChangeNotifier(clusterProperties, jdbcTemplate, objectMapper)
+                .notifyChanged(List.of(getCurrencyDetailsDto()));
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(anyString(), eq("currency_changes"), payload.capture());
+        listener.handle(payload.getValue());
+        verify(currencyService).reloadCurrency(USD, UPDATED_ON);
+    }
+
+    @Test
+    void notifyChanged_shouldNotFailWhenNotificationFails() {
+        clusterProperties.setEnabled(true);
+        when(jdbcTemplate.queryForList(anyString(), eq("currency_changes"), anyString()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        new CurrencyChangeNotifier(clusterProperties, jdbcTemplate, objectMapper)
+                .notifyChanged(List.of(getCurrencyDetailsDto()));
+    }
+
+    @Test
+    void handle_shouldIgnoreMalformedNotification() {
+        new CurrencyChangeListener(clusterProperties, null, currencyService, objectMapper).handle("USD");
+
+        verify(currencyService, never()).reloadCurrency(any(), any());
+    }
+
+    private static CurrencyDetailsDto getCurrencyDetailsDto() {
+        return new CurrencyDetailsDto(USD, Map.of("EUR", BigDecimal.ONE), UPDATED_ON, UPDATED_ON);
+    }
+}
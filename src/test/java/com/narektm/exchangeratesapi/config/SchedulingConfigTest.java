@@ -0,0 +1,56 @@
+package com.narektm.exchangeratesapi.config;
+
+import com.narektm.exchangeratesapi.cluster.RefreshLeaderElection;
+import com.narektm.exchangeratesapi.service.CrossRateCalculator;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import com.narektm.exchangeratesapi.service.TieredRefreshScheduler;
+import com.narektm.exchangeratesapi.stream.RateUpdateBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTask;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Loads the scheduled beans with scheduling enabled and the delays written like in application.yml, so a delay
+ * the scheduler cannot parse fails here rather than at startup.
+ */
+@SpringBootTest(classes = {SchedulingConfig.class,
+        RefreshProperties.class,
+        StreamProperties.class,
+        TieredRefreshScheduler.class,
+        RateUpdateBroadcaster.class},
+        properties = {"scheduling.enabled=true",
+                "exchange.rates.refresh.tick=10s",
+                "exchange.rates.stream.heartbeat=30s"})
+@EnableConfigurationProperties
+class SchedulingConfigTest {
+
+    @Autowired
+    private ScheduledTaskHolder scheduledTaskHolder;
+
+    @MockBean
+    private CurrencyService currencyService;
+
+    @MockBean
+    private RefreshLeaderElection refreshLeaderElection;
+
+    @MockBean
+    private CrossRateCalculator crossRateCalculator;
+
+    @Test
+    void contextLoads_shouldScheduleTasksWithDelaysFromProperties() {
+        assertThat(scheduledTaskHolder.getScheduledTasks())
+                .map(ScheduledTask::getTask)
+                .filteredOn(FixedDelayTask.class::isInstance)
+                .map(task -> ((FixedDelayTask) task).getIntervalDuration())
+                .contains(Duration.ofSeconds(10), Duration.ofSeconds(30));
+    }
+}
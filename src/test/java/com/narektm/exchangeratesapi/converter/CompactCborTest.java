@@ -0,0 +1,77 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCborTest {
+
+    private final ObjectMapper cborMapper = new CBORMapper();
+
+    @Test
+    void currencyId_shouldPackCodeInBase26() {
+        assertThat(CompactCbor.currencyId("AAA")).isZero();
+        assertThat(CompactCbor.currencyId("USD")).isEqualTo(14015);
+        assertThat(CompactCbor.currencyId("usd")).isEqualTo(14015);
+        assertThat(CompactCbor.currencyId("EUR")).isLessThan(CompactCbor.currencyId("USD"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CompactCbor.currencyId("US1"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CompactCbor.currencyId("USDT"));
+    }
+
+    @Test
+    void encode_shouldWriteCurrencyWithIdsAndScaledRates() throws Exception {
+        LocalDateTime updatedOn = LocalDateTime.parse("2026-10-18T00:10:00");
+        CurrencyDetailsDto currencyDetailsDto = new CurrencyDetailsDto("USD",
+                Map.of("EUR", new BigDecimal("0.92"), "AMD", new BigDecimal("1e12")),
+                updatedOn,
+                updatedOn);
+
+        JsonNode currency = cborMapper.readTree(CompactCbor.encode(currencyDetailsDto));
+
+        assertThat(currency.size()).isEqualTo(5);
+        assertThat(currency.get(0).intValue()).isEqualTo(14015);
+        assertThat(currency.get(2).longValue()).isEqualTo(updatedOn.toInstant(ZoneOffset.UTC).toEpochMilli());
+        assertThat(currency.get(3).intValue()).isEqualTo(CompactCbor.RATE_SCALE);
+        assertThat(currency.get(4).get(String.valueOf(CompactCbor.currencyId("EUR"))).longValue())
+                .isEqualTo(9_200_000_000L);
+        // too large for a long at the rate scale
+        assertThat(currency.get(4).get(String.valueOf(CompactCbor.currencyId("AMD"))).decimalValue())
+                .isEqualByComparingTo("1e12");
+    }
+
+    @Test
+    void encode_shouldWriteSortedCurrencyIds() throws Exception {
+        JsonNode currencyIds = cborMapper.readTree(CompactCbor.encode(List.of("USD", "EUR")));
+
+        assertThat(currencyIds.get(0).intValue()).isEqualTo(CompactCbor.currencyId("EUR"));
+        assertThat(currencyIds.get(1).intValue()).isEqualTo(CompactCbor.currencyId("USD"));
+    }
+
+    @Test
+    void encode_shouldBeMuchSmallerThanJson() throws Exception {
+        Map<String, BigDecimal> rates = IntStream.range(0, 170)
+                .mapToObj(i -> "%c%c%c".formatted('A' + i / 26, 'A' + i % 26, 'X'))
+                .collect(Collectors.toMap(Function.identity(), code -> new BigDecimal("1234.5678901234")));
+        CurrencyDetailsDto currencyDetailsDto =
+                new CurrencyDetailsDto("USD", rates, LocalDateTime.now(), LocalDateTime.now());
+        ObjectMapper jsonMapper = JsonMapper.builder().findAndAddModules().build();
+
+        assertThat(CompactCbor.encode(currencyDetailsDto).length)
+                .isLessThan(jsonMapper.writeValueAsBytes(currencyDetailsDto).length * 2 / 3);
+    }
+}
@@ -52,7 +52,18 @@ class CurrencyConverterTest {
 
         assertThat(result.getCode()).isEqualTo(response.baseCurrencyCode());
         assertThat(result.getRates()).isEqualTo(response.rates());
+        assertThat(result.getRatesHash()).isEqualTo(RatesHash.of(response.rates()));
         assertThat(result.getCreatedOn()).isNotNull();
         assertThat(result.getUpdatedOn()).isNotNull();
     }
-}
\ No newline at end of file
+
+    @Test
+    void ratesHash_shouldIgnoreTrailingZerosAndDetectChangedRates() {
+        String hash = RatesHash.of(Map.of("EUR", new BigDecimal("1.20"), "USD", BigDecimal.ONE));
+
+        assertThat(RatesHash.of(Map.of("USD", new BigDecimal("1.000"), "EUR", new BigDecimal("1.2"))))
+                .isEqualTo(hash);
+        assertThat(RatesHash.of(Map.of("EUR", new BigDecimal("1.21"), "USD", BigDecimal.ONE)))
+                .isNotEqualTo(hash);
+    }
+}
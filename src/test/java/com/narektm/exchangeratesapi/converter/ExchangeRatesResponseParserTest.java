@@ -0,0 +1,76 @@
+package com.narektm.exchangeratesapi.converter;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.config.ExternalExchangeRatesApiProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeRatesResponseParserTest {
+
+    private final ExchangeRatesResponseParser exchangeRatesResponseParser = new ExchangeRatesResponseParser(
+            JsonMapper.builder().build(), new ExternalExchangeRatesApiProperties());
+
+    @Test
+    void parse_shouldReadBaseAndRatesSkippingOtherFields() throws IOException {
+        ExchangeRatesResponse response = parse("""
+                {"success": true, "timestamp": 1760745600, "base": "USD", "date": "2026-10-18",
+                 "meta": {"source": ["ecb"]},
+                 "rates": {"GBP": 0.750000, "EUR": 0.92, "AMD": 387, "BTC": 1.5E-5}}
+                """);
+
+        assertThat(response.baseCurrencyCode()).isEqualTo("USD");
+        assertThat(response.rates()).isInstanceOf(CompactRateMap.class)
+                .containsExactly(Map.entry("AMD", new BigDecimal("387")),
+                        Map.entry("BTC", new BigDecimal("1.5E-5")),
+                        Map.entry("EUR", new BigDecimal("0.92")),
+                        Map.entry("GBP", new BigDecimal("0.750000")));
+        assertThat(response).isEqualTo(new ExchangeRatesResponse("USD", Map.of("AMD", new BigDecimal("387"),
+                "BTC", new BigDecimal("1.5E-5"), "EUR", new BigDecimal("0.92"), "GBP", new BigDecimal("0.750000"))));
+    }
+
+    @Test
+    void parse_shouldSkipRatesOfUnknownCurrencyCodes() throws IOException {
+        ExchangeRatesResponse response = parse("""
+                {"base": "USD", "rates": {"EUR": 0.92, "XYZ": 1.5}}
+                """);
+
+        assertThat(response.rates()).containsOnlyKeys("EUR");
+        assertThat(response.rates().get("XYZ")).isNull();
+    }
+
+    @Test
+    void parse_shouldReadLastRateOfRepeatedCode() throws IOException {
+        ExchangeRatesResponse response = parse("""
+                {"rates": {"EUR": 0.91, "GBP": 0.75, "EUR": 0.92}, "base": "USD"}
+                """);
+
+        assertThat(response.rates()).hasSize(2).containsEntry("EUR", new BigDecimal("0.92"));
+    }
+
+    @Test
+    void parse_shouldRejectResponseWithoutRates() {
+        Assertions.assertThrows(IOException.class, () -> parse("""
+                {"success": false, "error": {"code": 101, "info": "No API key"}}
+                """));
+    }
+
+    @Test
+    void parse_shouldRejectNonNumericRate() {
+        Assertions.assertThrows(IOException.class, () -> parse("""
+                {"base": "USD", "rates": {"EUR": "0.92"}}
+                """));
+    }
+
+    private ExchangeRatesResponse parse(String json) throws IOException {
+        return exchangeRatesResponseParser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
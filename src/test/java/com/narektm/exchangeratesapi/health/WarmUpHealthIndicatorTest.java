@@ -0,0 +1,48 @@
+package com.narektm.exchangeratesapi.health;
+
+import com.narektm.exchangeratesapi.cache.RateMatrix;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WarmUpHealthIndicatorTest {
+
+    @InjectMocks
+    private WarmUpHealthIndicator warmUpHealthIndicator;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @BeforeEach
+    void setUp() {
+        when(currencyService.getRatesSnapshot())
+                .thenReturn(new RatesSnapshot(0, Instant.now(), Map.of(), RateMatrix.empty(), Map.of(), null));
+    }
+
+    @Test
+    void health_shouldBeOutOfServiceUntilWarmedUp() {
+        when(currencyService.isWarmedUp()).thenReturn(false);
+
+        assertThat(warmUpHealthIndicator.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    void health_shouldBeUpOnceWarmedUp() {
+        when(currencyService.isWarmedUp()).thenReturn(true);
+
+        assertThat(warmUpHealthIndicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+}
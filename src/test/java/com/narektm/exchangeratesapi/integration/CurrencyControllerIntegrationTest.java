@@ -91,7 +91,7 @@ class CurrencyControllerIntegrationTest {
     void cleanUp() throws Exception {
         currencyRepository.deleteAll();
 
-        ReflectionTestUtil.getExchangeRates().clear();
+        ReflectionTestUtil.clearExchangeRates();
     }
 
     @Test
@@ -0,0 +1,156 @@
+package com.narektm.exchangeratesapi.integration;
+
+import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
+import com.narektm.exchangeratesapi.persistence.repository.CurrencyRepository;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import(CurrencyRepositoryIntegrationTest.QueryCountConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers
+@Slf4j
+class CurrencyRepositoryIntegrationTest {
+
+    private static final int CURRENCY_COUNT = 200;
+
+    @Container
+    @ServiceConnection
+    @SuppressWarnings("resource")
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15")
+            .withDatabaseName("test_db")
+            .withUsername("test_user")
+            .withPassword("test_password");
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @AfterEach
+    void cleanUp() {
+        currencyRepository.deleteAll();
+    }
+
+    @Test
+    void upsertAll_shouldInsertAllCurrenciesInOneBatch() {
+        List<CurrencyEntity> currencies = getCurrencies(BigDecimal.ONE);
+
+        QueryCount queryCount = measure("insert", () -> currencyRepository.upsertAll(currencies));
+
+        // one batched upsert and one select of the stored rows
+        assertThat(queryCount.getTotal()).isEqualTo(2);
+        assertThat(currencyRepository.count()).isEqualTo(CURRENCY_COUNT);
+    }
+
+    @Test
+    void upsertAll_shouldUpdateExistingCurrenciesInOneBatch() {
+        currencyRepository.upsertAll(getCurrencies(BigDecimal.ONE));
+        List<CurrencyEntity> updatedCurrencies = getCurrencies(BigDecimal.TEN);
+
+        QueryCount queryCount = measure("update", () -> currencyRepository.upsertAll(updatedCurrencies));
+
+        assertThat(queryCount.getTotal()).isEqualTo(2);
+        assertThat(currencyRepository.findAll()).hasSize(CURRENCY_COUNT)
+                .allSatisfy(currency -> assertThat(currency.getRates().get("AAA"))
+                        .isEqualByComparingTo(BigDecimal.TEN));
+    }
+
+    @Test
+    void saveOneByOne_shouldTakeAStatementPerRoundTrip() {
+        currencyRepository.upsertAll(getCurrencies(BigDecimal.ONE));
+
+        // the per-currency refresh that upsertAll replaced, measured for comparison
+        QueryCount queryCount = measure("one-by-one update", () -> getCurrencies(BigDecimal.TEN).forEach(currency -> {
+            CurrencyEntity currencyEntity = currencyRepository.findByCode(currency.getCode());
+            currencyEntity.setRates(currency.getRates());
+            currencyEntity.setUpdatedOn(currency.getUpdatedOn());
+            currencyRepository.save(currencyEntity);
+        }));
+
+        assertThat(queryCount.getTotal()).isGreaterThanOrEqualTo(2L * CURRENCY_COUNT);
+    }
+
+    private QueryCount measure(String operation, Runnable runnable) {
+        QueryCountHolder.clear();
+        long start = System.nanoTime();
+        runnable.run();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        QueryCount queryCount = QueryCountHolder.getGrandTotal();
+        log.info("{} of {} currencies took {} ms and {} statements",
+                operation, CURRENCY_COUNT, elapsedMillis, queryCount.getTotal());
+
+        return queryCount;
+    }
+
+    private static List<CurrencyEntity> getCurrencies(BigDecimal rate) {
+        LocalDateTime now = LocalDateTime.now(ZoneId.of("UTC"));
+        List<String> codes = IntStream.range(0, CURRENCY_COUNT)
+                .mapToObj(i -> "" + (char) ('A' + i / 26 / 26 % 26) + (char) ('A' + i / 26 % 26) + (char) ('A' + i % 26))
+                .toList();
+        Map<String, BigDecimal> rates = new HashMap<>();
+        codes.forEach(code -> rates.put(code, rate));
+
+        return codes.stream()
+                .map(code -> {
+                    CurrencyEntity currencyEntity = new CurrencyEntity();
+                    currencyEntity.setCode(code);
+                    currencyEntity.setRates(rates);
+                    currencyEntity.setCreatedOn(now);
+                    currencyEntity.setUpdatedOn(now);
+                    return currencyEntity;
+                })
+                .toList();
+    }
+
+    @TestConfiguration
+    static class QueryCountConfig {
+
+        @Bean
+        static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .countQuery()
+                                .build();
+                    }
+
+                    return bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.narektm.exchangeratesapi.metrics;
+
+import com.narektm.exchangeratesapi.cache.RateMatrix;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.dto.RefreshSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CurrencyMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CurrencyMetrics currencyMetrics = new CurrencyMetrics(meterRegistry);
+
+    @Test
+    void recordFetch_shouldTagLatencyWithCurrencyAndOutcome() {
+        currencyMetrics.registerSnapshotGauges(() -> snapshotOf(1, Instant.now()));
+
+        currencyMetrics.recordFetch("USD", System.nanoTime(), true);
+        currencyMetrics.recordFetch("USD", System.nanoTime(), false);
+        currencyMetrics.recordDroppedFetch("USD");
+
+        assertThat(meterRegistry.get("exchange.rates.fetch").tags("currency", "USD", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.fetch").tags("currency", "USD", "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.fetch.dropped").tag("currency", "USD")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void recordFetch_shouldTagUntrackedCurrencyAsOther() {
+        currencyMetrics.registerSnapshotGauges(() -> snapshotOf(1, Instant.now()));
+
+        currencyMetrics.recordFetch("XYZ", System.nanoTime(), false);
+        currencyMetrics.recordDroppedFetch("ABC");
+
+        assertThat(meterRegistry.get("exchange.rates.fetch").tags("currency", "other", "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.fetch.dropped").tag("currency", "other")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("exchange.rates.fetch").tag("currency", "XYZ").timer()).isNull();
+    }
+
+    @Test
+    void recordRefresh_shouldCountCurrenciesByOutcome() {
+        currencyMetrics.recordRefresh(System.nanoTime(), new RefreshSummary(3, 2, 1));
+
+        assertThat(meterRegistry.get("exchange.rates.refresh").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.refresh.currencies").tag("outcome", "changed")
+                .counter().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("exchange.rates.refresh.currencies").tag("outcome", "failed")
+                .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.refresh.last.completed").gauge().value())
+                .isCloseTo(Instant.now().getEpochSecond(), within(5.0));
+    }
+
+    @Test
+    void registerSnapshotGauges_shouldReportSizeAndAgeOfSnapshot() {
+        RatesSnapshot ratesSnapshot = snapshotOf(1, Instant.now().minus(90, ChronoUnit.SECONDS));
+
+        currencyMetrics.registerSnapshotGauges(() -> ratesSnapshot);
+
+        assertThat(meterRegistry.get("exchange.rates.cache.size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("exchange.rates.snapshot.age").gauge().value()).isCloseTo(90, within(5.0));
+    }
+
+    @Test
+    void registerUpstreamPoolGauges_shouldReportPoolUsageAndCountHandshakes() {
+        try (PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(7)
+                .build()) {
+            currencyMetrics.registerUpstreamPoolGauges(connectionManager);
+            currencyMetrics.recordUpstreamHandshake();
+
+            assertThat(meterRegistry.get("exchange.rates.upstream.connections.max").gauge().value()).isEqualTo(7);
+            assertThat(meterRegistry.get("exchange.rates.upstream.connections").tag("state", "leased")
+                    .gauge().value()).isZero();
+            assertThat(meterRegistry.get("exchange.rates.upstream.connections.pending").gauge().value()).isZero();
+            assertThat(meterRegistry.get("exchange.rates.upstream.handshakes").counter().count()).isEqualTo(1);
+        }
+    }
+
+    private static RatesSnapshot snapshotOf(long version, Instant publishedOn) {
+        CurrencyDetailsDto currencyDetailsDto = new CurrencyDetailsDto("USD",
+                Map.of("EUR", BigDecimal.ONE),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+
+        return new RatesSnapshot(version,
+                publishedOn,
+                Map.of("USD", currencyDetailsDto),
+                RateMatrix.empty(),
+                Map.of(),
+                null);
+    }
+}
@@ -0,0 +1,71 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.CrossRateProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CrossRateCalculatorTest {
+
+    private static final String EUR = "EUR";
+    private static final String USD = "USD";
+    private static final String GBP = "GBP";
+
+    private final CrossRateCalculator crossRateCalculator = new CrossRateCalculator(getProperties());
+
+    private final ExchangeRatesResponse pivotResponse = new ExchangeRatesResponse(EUR, Map.of(
+            EUR, BigDecimal.ONE,
+            USD, new BigDecimal("1.25"),
+            GBP, new BigDecimal("0.80")));
+
+    @Test
+    void derive_shouldReturnPivotResponseForPivotCurrency() {
+        Optional<ExchangeRatesResponse> result = crossRateCalculator.derive(pivotResponse, EUR);
+
+        assertThat(result).contains(pivotResponse);
+    }
+
+    @Test
+    void derive_shouldCalculateCrossRatesFromPivot() {
+        Optional<ExchangeRatesResponse> result = crossRateCalculator.derive(pivotResponse, USD);
+
+        assertThat(result).isPresent();
+        assertThat(result.get().baseCurrencyCode()).isEqualTo(USD);
+        assertThat(result.get().rates())
+                .hasSize(3)
+                .containsEntry(USD, BigDecimal.ONE)
+                .containsEntry(EUR, new BigDecimal("0.8000"))
+                .containsEntry(GBP, new BigDecimal("0.6400"));
+    }
+
+    @Test
+    void derive_shouldReturnEmptyWhenCurrencyIsUnknownToPivot() {
+        Optional<ExchangeRatesResponse> result = crossRateCalculator.derive(pivotResponse, "AMD");
+
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void deriveAll_shouldSkipCurrenciesThatCannotBeDerived() {
+        List<ExchangeRatesResponse> result = crossRateCalculator.deriveAll(pivotResponse, Set.of(USD, GBP, "AMD"));
+
+        assertThat(result).extracting(ExchangeRatesResponse::baseCurrencyCode)
+                .containsExactlyInAnyOrder(USD, GBP);
+    }
+
+    private static CrossRateProperties getProperties() {
+        CrossRateProperties properties = new CrossRateProperties();
+
+        properties.setEnabled(true);
+        properties.setScale(4);
+
+        return properties;
+    }
+}
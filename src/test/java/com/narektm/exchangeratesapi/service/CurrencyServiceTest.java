@@ -1,14 +1,32 @@
 package com.narektm.exchangeratesapi.service;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.cache.EncodedResponse;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cache.RatesSnapshotFactory;
+import com.narektm.exchangeratesapi.cache.RejectedCurrencyCache;
+import com.narektm.exchangeratesapi.cluster.CurrencyChangeNotifier;
+import com.narektm.exchangeratesapi.cluster.RefreshLeaderElection;
+import com.narektm.exchangeratesapi.config.ClusterProperties;
+import com.narektm.exchangeratesapi.config.ReadThroughProperties;
+import com.narektm.exchangeratesapi.config.RefreshProperties;
+import com.narektm.exchangeratesapi.config.WarmUpProperties;
 import com.narektm.exchangeratesapi.converter.CurrencyConverter;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
+import com.narektm.exchangeratesapi.converter.RatesHash;
 import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
 import com.narektm.exchangeratesapi.dto.CurrencySummaryDto;
 import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.dto.RefreshSummary;
 import com.narektm.exchangeratesapi.exception.ExternalApiException;
 import com.narektm.exchangeratesapi.exception.NotFoundException;
+import com.narektm.exchangeratesapi.metrics.CurrencyMetrics;
 import com.narektm.exchangeratesapi.persistence.entity.CurrencyEntity;
+import com.narektm.exchangeratesapi.persistence.projection.CurrencyRatesHash;
 import com.narektm.exchangeratesapi.persistence.repository.CurrencyRepository;
+import com.narektm.exchangeratesapi.stream.RateUpdateBroadcaster;
 import com.narektm.exchangeratesapi.testutils.ReflectionTestUtil;
+import com.narektm.exchangeratesapi.web.model.AddCurrenciesRequest;
 import com.narektm.exchangeratesapi.web.model.AddCurrencyRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -16,18 +34,32 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +68,7 @@ class CurrencyServiceTest {
 
     private static final String USD = "USD";
     private static final String EUR = "EUR";
+    private static final String GBP = "GBP";
 
     @InjectMocks
     private CurrencyService currencyService;
@@ -44,11 +77,48 @@ class CurrencyServiceTest {
     private CurrencyRepository currencyRepository;
 
     @Mock
-    private ExternalExchangeRatesService exchangeRatesService;
+    private ExchangeRatesService exchangeRatesService;
 
     @Mock
     private CurrencyConverter currencyConverter;
 
+    @Mock
+    private CrossRateCalculator crossRateCalculator;
+
+    @Mock
+    private RateHistoryService rateHistoryService;
+
+    @Mock
+    private CurrencyMetrics currencyMetrics;
+
+    @Mock
+    private CurrencyChangeNotifier currencyChangeNotifier;
+
+    @Mock
+    private RateUpdateBroadcaster rateUpdateBroadcaster;
+
+    @Spy
+    private RefreshLeaderElection refreshLeaderElection = new RefreshLeaderElection(new ClusterProperties(), null);
+
+    @Spy
+    private UpstreamUsageTracker upstreamUsageTracker = new UpstreamUsageTracker();
+
+    @Spy
+    private RatesSnapshotFactory ratesSnapshotFactory = new RatesSnapshotFactory(
+            new CurrencyResponseEncoder(JsonMapper.builder().findAndAddModules().build()));
+
+    @Spy
+    private RefreshProperties refreshProperties = new RefreshProperties();
+
+    @Spy
+    private WarmUpProperties warmUpProperties = new WarmUpProperties();
+
+    @Spy
+    private ReadThroughProperties readThroughProperties = new ReadThroughProperties();
+
+    @Mock
+    private RejectedCurrencyCache rejectedCurrencyCache;
+
     @Test
     void getAllCurrencies_shouldReturnAllCurrencySummaries() throws Exception {
         Map<String, CurrencyDetailsDto> mockExchangeRates = Map.of(
@@ -86,6 +156,44 @@ class CurrencyServiceTest {
         NotFoundException exception = Assertions.assertThrows(NotFoundException.class,
                 () -> currencyService.getCurrency(USD));
         assertThat(exception.getMessage()).isEqualTo("Currency with code USD not found");
+        verify(currencyMetrics).recordCurrencyNotFound();
+    }
+
+    @Test
+    void getRatesSnapshot_shouldContainPreEncodedResponses() {
+        initExchangeRates(getCurrencyDetailsDto(USD, EUR));
+
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot();
+        EncodedResponse encodedResponse = ratesSnapshot.getEncodedCurrency(USD);
+
+        assertThat(new String(encodedResponse.json())).contains("\"code\":\"USD\"");
+        assertThat(encodedResponse.eTag()).startsWith("\"USD-");
+        assertThat(new String(ratesSnapshot.encodedCurrencyList().json())).isEqualTo("[{\"code\":\"USD\"}]");
+    }
+
+    @Test
+    void updateExchangeRates_shouldPublishAllCurrenciesInOneSnapshot() {
+        CurrencyEntity usdEntity = getCurrencyEntity();
+        CurrencyEntity eurEntity = getCurrencyEntity();
+        eurEntity.setCode(EUR);
+        ExchangeRatesResponse usdResponse = new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
+        ExchangeRatesResponse eurResponse = new ExchangeRatesResponse(EUR, Map.of(USD, BigDecimal.ONE));
+        long previousVersion = currencyService.getRatesSnapshot().version();
+
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD, EUR));
+        when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(usdResponse));
+        when(exchangeRatesService.fetchExchangeRates(EUR)).thenReturn(ResponseEntity.ok(eurResponse));
+        when(currencyConverter.toCurrencyEntity(usdResponse)).thenReturn(usdEntity);
+        when(currencyConverter.toCurrencyEntity(eurResponse)).thenReturn(eurEntity);
+        when(currencyRepository.upsertAll(any())).thenReturn(List.of(usdEntity, eurEntity));
+        when(currencyConverter.toCurrencyDetailsDto(usdEntity)).thenReturn(getCurrencyDetailsDto(USD, EUR));
+        when(currencyConverter.toCurrencyDetailsDto(eurEntity)).thenReturn(getCurrencyDetailsDto(EUR, USD));
+
+        currencyService.updateExchangeRates();
+
+        RatesSnapshot ratesSnapshot = currencyService.getRatesSnapshot();
+        assertThat(ratesSnapshot.version()).isEqualTo(previousVersion + 1);
+        assertThat(ratesSnapshot.currencies()).containsOnlyKeys(USD, EUR);
     }
 
     @Test
@@ -108,6 +216,7 @@ class CurrencyServiceTest {
 
         Map<String, CurrencyDetailsDto> exchangeRates = ReflectionTestUtil.getExchangeRates();
         assertThat(exchangeRates).containsKey(USD);
+        verify(currencyChangeNotifier).notifyChanged(List.of(dto));
     }
 
     @Test
@@ -120,6 +229,93 @@ class CurrencyServiceTest {
         assertThat(exception.getMessage()).isEqualTo("Currency with code USD already exists");
     }
 
+    @Test
+    void addCurrency_shouldThrowExceptionWhenCurrencyWasAddedConcurrently() {
+        AddCurrencyRequest request = new AddCurrencyRequest(USD);
+        ExchangeRatesResponse response =
+                new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
+        CurrencyEntity entity = getCurrencyEntity();
+
+        when(exchangeRatesService.fetchExchangeRates(USD))
+                .thenReturn(ResponseEntity.ok(response));
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(entity);
+        when(currencyRepository.save(entity))
+                .thenThrow(new DataIntegrityViolationException("uk_currency__code"));
+
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> currencyService.addCurrency(request));
+        assertThat(exception.getMessage()).isEqualTo("Currency with code USD already exists");
+        assertThat(currencyService.getRatesSnapshot().currencies()).doesNotContainKey(USD);
+    }
+
+    @Test
+    void addCurrencies_shouldAddAllCurrenciesInOneUpsert() {
+        CurrencyEntity usdEntity = getCurrencyEntity();
+        CurrencyEntity gbpEntity = getCurrencyEntity();
+        gbpEntity.setCode(GBP);
+        CurrencyDetailsDto usdDto = getCurrencyDetailsDto(USD, EUR);
+        CurrencyDetailsDto gbpDto = getCurrencyDetailsDto(GBP, EUR);
+
+        when(exchangeRatesService.fetchExchangeRates(USD))
+                .thenReturn(ResponseEntity.ok(new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE))));
+        when(exchangeRatesService.fetchExchangeRates(GBP))
+                .thenReturn(ResponseEntity.ok(new ExchangeRatesResponse(GBP, Map.of(EUR, BigDecimal.ONE))));
+        when(currencyConverter.toCurrencyEntity(any())).thenReturn(usdEntity, gbpEntity);
+        when(currencyRepository.upsertAll(any())).thenReturn(List.of(usdEntity, gbpEntity));
+        when(currencyConverter.toCurrencyDetailsDto(usdEntity)).thenReturn(usdDto);
+        when(currencyConverter.toCurrencyDetailsDto(gbpEntity)).thenReturn(gbpDto);
+
+        List<CurrencyDetailsDto> result = currencyService.addCurrencies(new AddCurrenciesRequest(List.of(USD, GBP)));
+
+        assertThat(result).extracting(CurrencyDetailsDto::code).containsExactly(USD, GBP);
+        assertThat(currencyService.getRatesSnapshot().currencies()).containsOnlyKeys(USD, GBP);
+        verify(currencyRepository, times(1)).upsertAll(any());
+        verify(currencyRepository, never()).save(any());
+    }
+
+    @Test
+    void addCurrencies_shouldAddNoneWhenFetchingAnyCurrencyFails() {
+        when(exchangeRatesService.fetchExchangeRates(USD))
+                .thenReturn(ResponseEntity.ok(new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE))));
+        when(exchangeRatesService.fetchExchangeRates(GBP)).thenThrow(new ExternalApiException("Upstream down"));
+
+        ExternalApiException exception = Assertions.assertThrows(ExternalApiException.class,
+                () -> currencyService.addCurrencies(new AddCurrenciesRequest(List.of(USD, GBP))));
+
+        assertThat(exception.getMessage()).contains(GBP).doesNotContain(USD);
+        verify(currencyRepository, never()).upsertAll(any());
+        assertThat(currencyService.getRatesSnapshot().currencies()).isEmpty();
+    }
+
+    @Test
+    void addCurrencies_shouldThrowExceptionWhenAnyCurrencyAlreadyExists() throws Exception {
+        ReflectionTestUtil.putDataToExchangeRates(Map.of(USD, getCurrencyDetailsDto(USD, EUR)));
+
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> currencyService.addCurrencies(new AddCurrenciesRequest(List.of(GBP, USD))));
+
+        assertThat(exception.getMessage()).isEqualTo("Currencies with codes [USD] already exist");
+        verify(exchangeRatesService, never()).fetchExchangeRates(any());
+    }
+
+    @Test
+    void updateExchangeRates_shouldRefreshOnlyGivenCurrencies() {
+        CurrencyEntity existingEntity = getCurrencyEntity();
+        ExchangeRatesResponse response =
+                new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.TEN));
+
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD, EUR));
+        when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(response));
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(existingEntity);
+        when(currencyRepository.upsertAll(List.of(existingEntity))).thenReturn(List.of(existingEntity));
+        when(currencyConverter.toCurrencyDetailsDto(existingEntity))
+                .thenReturn(getCurrencyDetailsDto(USD, EUR));
+
+        RefreshSummary refreshSummary = currencyService.updateExchangeRates(Set.of(USD));
+
+        assertThat(refreshSummary).isEqualTo(new RefreshSummary(1, 0, 0));
+        verify(exchangeRatesService, never()).fetchExchangeRates(EUR);
+    }
 
     @Test
     void updateExchangeRates_shouldUpdateAllCurrencies() {
@@ -128,10 +324,10 @@ class CurrencyServiceTest {
         ExchangeRatesResponse response =
                 new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
 
-        when(currencyRepository.getAllCodes()).thenReturn(Set.of(USD));
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD));
         when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(response));
-        when(currencyRepository.findByCode(USD)).thenReturn(existingEntity);
-        when(currencyRepository.save(any())).thenReturn(existingEntity);
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(existingEntity);
+        when(currencyRepository.upsertAll(List.of(existingEntity))).thenReturn(List.of(existingEntity));
         when(currencyConverter.toCurrencyDetailsDto(existingEntity))
                 .thenReturn(new CurrencyDetailsDto(USD,
                         existingEntity.getRates(),
@@ -140,35 +336,411 @@ class CurrencyServiceTest {
 
         currencyService.updateExchangeRates();
 
-        verify(currencyRepository).findByCode(USD);
-        verify(currencyRepository).save(any(CurrencyEntity.class));
+        verify(currencyRepository).upsertAll(List.of(existingEntity));
+        verify(currencyRepository, never()).findByCode(any());
+        verify(currencyRepository, never()).save(any());
+    }
+
+    @Test
+    void updateExchangeRates_shouldSkipCurrenciesWithUnchangedRates() {
+        CurrencyEntity existingEntity = getCurrencyEntity();
+        existingEntity.setRatesHash("hash");
+        ExchangeRatesResponse response =
+                new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
+        long previousVersion = currencyService.getRatesSnapshot().version();
+
+        when(currencyRepository.getAllRatesHashes()).thenReturn(List.of(new CurrencyRatesHash(USD, "hash")));
+        when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(response));
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(existingEntity);
+
+        currencyService.updateExchangeRates();
+
+        verify(currencyRepository, never()).upsertAll(any());
+        assertThat(currencyService.getRatesSnapshot().version()).isEqualTo(previousVersion);
+        assertThat(currencyService.getLastRefreshSummary()).isEqualTo(new RefreshSummary(0, 1, 0));
+        verify(rateHistoryService, never()).recordRates(any(), any());
+        verify(rateHistoryService).recordUnchangedRates(any(), eq(List.of(response)));
+    }
+
+    @Test
+    void updateExchangeRates_shouldPublishRatesWhenRecordingHistoryFails() {
+        CurrencyEntity existingEntity = getCurrencyEntity();
+        ExchangeRatesResponse response =
+                new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
+
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD));
+        when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(response));
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(existingEntity);
+        when(currencyRepository.upsertAll(List.of(existingEntity))).thenReturn(List.of(existingEntity));
+        when(currencyConverter.toCurrencyDetailsDto(existingEntity))
+                .thenReturn(getCurrencyDetailsDto(USD, EUR));
+        doThrow(new IllegalStateException("DB Error")).when(rateHistoryService).recordRates(any(), any());
+
+        currencyService.updateExchangeRates();
+
+        verify(currencyRepository).upsertAll(List.of(existingEntity));
+        assertThat(currencyService.getRatesSnapshot().currencies()).containsKey(USD);
     }
 
     @Test
     void updateExchangeRates_shouldHandleExternalApiExceptionGracefully() {
-        when(currencyRepository.getAllCodes()).thenReturn(Set.of(USD));
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD));
         when(exchangeRatesService.fetchExchangeRates(USD))
                 .thenThrow(new ExternalApiException("API Error"));
 
         currencyService.updateExchangeRates();
 
-        verify(currencyRepository, never()).findByCode(any());
+        verify(currencyRepository, never()).upsertAll(any());
         verify(currencyRepository, never()).save(any());
+        verify(currencyMetrics).recordFetch(eq(USD), anyLong(), eq(false));
+        verify(currencyMetrics).recordDroppedFetch(USD);
+        verify(currencyMetrics).recordRefresh(anyLong(), eq(new RefreshSummary(0, 0, 1)));
     }
 
     @Test
-    void initExchangeRatesFromDb_shouldInitializeExchangeRates() throws Exception {
+    void addCurrency_shouldDeriveRatesFromPivotWhenCrossRatesEnabled() {
+        AddCurrencyRequest request = new AddCurrencyRequest(USD);
+        ExchangeRatesResponse pivotResponse =
+                new ExchangeRatesResponse(EUR, Map.of(USD, BigDecimal.TWO));
+        ExchangeRatesResponse derivedResponse =
+                new ExchangeRatesResponse(USD, Map.of(EUR, new BigDecimal("0.5")));
         CurrencyEntity entity = getCurrencyEntity();
 
-        CurrencyDetailsDto dto = new CurrencyDetailsDto(USD, entity.getRates(), entity.getCreatedOn(), entity.getUpdatedOn());
-        when(currencyRepository.findAll()).thenReturn(List.of(entity));
-        when(currencyConverter.toCurrencyDetailsDto(entity)).thenReturn(dto);
+        when(crossRateCalculator.isEnabled()).thenReturn(true);
+        when(crossRateCalculator.getPivotCurrencyCode()).thenReturn(EUR);
+        when(exchangeRatesService.fetchExchangeRates(EUR)).thenReturn(ResponseEntity.ok(pivotResponse));
+        when(crossRateCalculator.derive(pivotResponse, USD)).thenReturn(Optional.of(derivedResponse));
+        when(currencyConverter.toCurrencyEntity(derivedResponse)).thenReturn(entity);
+        when(currencyRepository.save(entity)).thenReturn(entity);
+        when(currencyConverter.toCurrencyDetailsDto(entity)).thenReturn(getCurrencyDetailsDto(USD, EUR));
+
+        currencyService.addCurrency(request);
+
+        verify(exchangeRatesService, never()).fetchExchangeRates(USD);
+    }
+
+    @Test
+    void updateExchangeRates_shouldFetchOnlyPivotWhenCrossRatesEnabled() {
+        CurrencyEntity existingEntity = getCurrencyEntity();
+        ExchangeRatesResponse pivotResponse =
+                new ExchangeRatesResponse(EUR, Map.of(USD, BigDecimal.TWO));
+        ExchangeRatesResponse derivedResponse =
+                new ExchangeRatesResponse(USD, Map.of(EUR, new BigDecimal("0.5")));
+
+        when(crossRateCalculator.isEnabled()).thenReturn(true);
+        when(crossRateCalculator.getPivotCurrencyCode()).thenReturn(EUR);
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD));
+        when(exchangeRatesService.fetchExchangeRates(EUR)).thenReturn(ResponseEntity.ok(pivotResponse));
+        when(crossRateCalculator.deriveAll(pivotResponse, Set.of(USD))).thenReturn(List.of(derivedResponse));
+        when(currencyConverter.toCurrencyEntity(derivedResponse)).thenReturn(existingEntity);
+        when(currencyRepository.upsertAll(List.of(existingEntity))).thenReturn(List.of(existingEntity));
+        when(currencyConverter.toCurrencyDetailsDto(existingEntity)).thenReturn(getCurrencyDetailsDto(USD, EUR));
+
+        currencyService.updateExchangeRates();
+
+        verify(exchangeRatesService).fetchExchangeRates(EUR);
+        verify(exchangeRatesService, never()).fetchExchangeRates(USD);
+        verify(currencyRepository).upsertAll(List.of(existingEntity));
+    }
+
+    @Test
+    void updateExchangeRates_shouldCountCurrencyNotDerivableFromPivotAsFailed() {
+        ExchangeRatesResponse pivotResponse = new ExchangeRatesResponse(EUR, Map.of());
+
+        when(crossRateCalculator.isEnabled()).thenReturn(true);
+        when(crossRateCalculator.getPivotCurrencyCode()).thenReturn(EUR);
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(USD));
+        when(exchangeRatesService.fetchExchangeRates(EUR)).thenReturn(ResponseEntity.ok(pivotResponse));
+        when(crossRateCalculator.deriveAll(pivotResponse, Set.of(USD))).thenReturn(List.of());
+
+        RefreshSummary refreshSummary = currencyService.updateExchangeRates(Set.of(USD));
+
+        assertThat(refreshSummary).isEqualTo(new RefreshSummary(0, 0, 1));
+        verify(currencyMetrics).recordDroppedFetch(USD);
+        verify(currencyRepository, never()).upsertAll(any());
+    }
+
+    @Test
+    void addCurrency_shouldRefetchPivotOlderThanMaxAge() {
+        ExchangeRatesResponse pivotResponse =
+                new ExchangeRatesResponse(EUR, Map.of(USD, BigDecimal.TWO));
+        ExchangeRatesResponse derivedResponse =
+                new ExchangeRatesResponse(USD, Map.of(EUR, new BigDecimal("0.5")));
+        CurrencyEntity entity = getCurrencyEntity();
+
+        when(crossRateCalculator.isEnabled()).thenReturn(true);
+        when(crossRateCalculator.getPivotCurrencyCode()).thenReturn(EUR);
+        when(crossRateCalculator.getPivotMaxAge()).thenReturn(Duration.ZERO);
+        when(currencyRepository.getAllRatesHashes()).thenReturn(getRatesHashes(GBP));
+        when(exchangeRatesService.fetchExchangeRates(EUR)).thenReturn(ResponseEntity.ok(pivotResponse));
+        when(crossRateCalculator.deriveAll(pivotResponse, Set.of(GBP))).thenReturn(List.of());
+        when(crossRateCalculator.derive(pivotResponse, USD)).thenReturn(Optional.of(derivedResponse));
+        when(currencyConverter.toCurrencyEntity(derivedResponse)).thenReturn(entity);
+        when(currencyRepository.save(entity)).thenReturn(entity);
+        when(currencyConverter.toCurrencyDetailsDto(entity)).thenReturn(getCurrencyDetailsDto(USD, EUR));
+
+        currencyService.updateExchangeRates(Set.of(GBP));
+        currencyService.addCurrency(new AddCurrencyRequest(USD));
+
+        verify(exchangeRatesService, times(2)).fetchExchangeRates(EUR);
+    }
+
+    @Test
+    void updateExchangeRates_shouldBoundConcurrentFetches() {
+        Set<String> currencyCodes = Set.of(USD, EUR, GBP, "AMD", "JPY");
+        AtomicInteger inFlightFetches = new AtomicInteger();
+        AtomicInteger maxInFlightFetches = new AtomicInteger();
+        refreshProperties.setMaxConcurrentFetches(2);
+
+        when(currencyRepository.getAllRatesHashes())
+                .thenReturn(getRatesHashes(currencyCodes.toArray(String[]::new)));
+        when(exchangeRatesService.fetchExchangeRates(any())).thenAnswer(invocation -> {
+            maxInFlightFetches.accumulateAndGet(inFlightFetches.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlightFetches.decrementAndGet();
+            throw new ExternalApiException("API Error");
+        });
+
+        currencyService.updateExchangeRates();
+
+        verify(exchangeRatesService, times(currencyCodes.size())).fetchExchangeRates(any());
+        assertThat(maxInFlightFetches.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void warmUpExchangeRates_shouldLoadAllPages() throws Exception {
+        warmUpProperties.setPageSize(1);
+        CurrencyDetailsDto usd = getCurrencyDetailsDto(USD, EUR);
+        CurrencyDetailsDto eur = getCurrencyDetailsDto(EUR, USD);
 
-        currencyService.initExchangeRatesFromDb();
+        when(currencyRepository.findCurrencyDetailsAfter(eq(""), any())).thenReturn(List.of(eur));
+        when(currencyRepository.findCurrencyDetailsAfter(eq(EUR), any())).thenReturn(List.of(usd));
+        when(currencyRepository.findCurrencyDetailsAfter(eq(USD), any())).thenReturn(List.of());
+
+        assertThat(currencyService.isWarmedUp()).isFalse();
+
+        currencyService.warmUpExchangeRates();
 
         Map<String, CurrencyDetailsDto> exchangeRates = ReflectionTestUtil.getExchangeRates();
-        assertThat(exchangeRates).containsKey(USD)
-                .containsEntry(USD, dto);
+        assertThat(exchangeRates).containsOnlyKeys(USD, EUR);
+        assertThat(currencyService.isWarmedUp()).isTrue();
+    }
+
+    @Test
+    void warmUpExchangeRates_shouldKeepCurrenciesLoadedInTheMeantime() throws Exception {
+        CurrencyDetailsDto refreshedDto = getCurrencyDetailsDto(USD, GBP);
+        ReflectionTestUtil.putDataToExchangeRates(Map.of(USD, refreshedDto));
+
+        when(currencyRepository.findCurrencyDetailsAfter(eq(""), any()))
+                .thenReturn(List.of(getCurrencyDetailsDto(USD, EUR)));
+
+        currencyService.warmUpExchangeRates();
+
+        assertThat(currencyService.getRatesSnapshot().getCurrency(USD).rates()).containsOnlyKeys(GBP);
+    }
+
+    @Test
+    void warmUpExchangeRates_shouldThrowWhenDatabaseFails() {
+        when(currencyRepository.findCurrencyDetailsAfter(eq(""), any()))
+                .thenThrow(new IllegalStateException("DB Error"));
+
+        Assertions.assertThrows(IllegalStateException.class, () -> currencyService.warmUpExchangeRates());
+        assertThat(currencyService.isWarmedUp()).isFalse();
+    }
+
+    @Test
+    void warmUpExchangeRatesUntilDone_shouldRetryFailedWarmUp() {
+        warmUpProperties.setInitialBackoff(Duration.ofMillis(1));
+        when(currencyRepository.findCurrencyDetailsAfter(eq(""), any()))
+                .thenThrow(new IllegalStateException("DB Error"))
+                .thenThrow(new IllegalStateException("DB Error"))
+                .thenReturn(List.of(getCurrencyDetailsDto(USD, EUR)));
+
+        currencyService.warmUpExchangeRatesUntilDone();
+
+        assertThat(currencyService.isWarmedUp()).isTrue();
+        assertThat(currencyService.getRatesSnapshot().currencies()).containsKey(USD);
+        verify(currencyRepository, times(3)).findCurrencyDetailsAfter(eq(""), any());
+    }
+
+    @Test
+    void getCurrency_shouldLoadMissingCurrencyBeforeWarmUpCompletes() {
+        when(currencyRepository.findCurrencyDetailsByCode(USD))
+                .thenReturn(Optional.of(getCurrencyDetailsDto(USD, EUR)));
+
+        CurrencyDetailsDto result = currencyService.getCurrency(USD);
+
+        assertThat(result.code()).isEqualTo(USD);
+        assertThat(currencyService.getRatesSnapshot().currencies()).containsKey(USD);
+    }
+
+    @Test
+    void getCurrency_shouldNotLoadMissingCurrencyOnceWarmedUp() {
+        currencyService.warmUpExchangeRates();
+
+        Assertions.assertThrows(NotFoundException.class, () -> currencyService.getCurrency(USD));
+        verify(currencyRepository, never()).findCurrencyDetailsByCode(any());
+    }
+
+    @Test
+    void updateExchangeRates_shouldSkipWhenAnotherInstanceIsLeader() {
+        when(refreshLeaderElection.isLeader()).thenReturn(false);
+
+        currencyService.updateExchangeRates();
+
+        verify(currencyRepository, never()).getAllRatesHashes();
+        verify(exchangeRatesService, never()).fetchExchangeRates(any());
+    }
+
+    @Test
+    void reloadCurrency_shouldReloadCurrencyChangedByAnotherInstance() throws Exception {
+        CurrencyDetailsDto cachedDto = getCurrencyDetailsDto(USD, EUR);
+        ReflectionTestUtil.putDataToExchangeRates(Map.of(USD, cachedDto));
+        CurrencyDetailsDto changedDto = new CurrencyDetailsDto(USD, Map.of(GBP, BigDecimal.ONE),
+                cachedDto.createdOn(), cachedDto.updatedOn().plusMinutes(1));
+
+        when(currencyRepository.findCurrencyDetailsByCode(USD)).thenReturn(Optional.of(changedDto));
+
+        currencyService.reloadCurrency(USD, changedDto.updatedOn());
+
+        assertThat(currencyService.getRatesSnapshot().getCurrency(USD).rates()).containsOnlyKeys(GBP);
+    }
+
+    @Test
+    void reloadCurrency_shouldSkipCurrencyAlreadyUpToDate() throws Exception {
+        CurrencyDetailsDto cachedDto = getCurrencyDetailsDto(USD, EUR);
+        ReflectionTestUtil.putDataToExchangeRates(Map.of(USD, cachedDto));
+
+        currencyService.reloadCurrency(USD, cachedDto.updatedOn());
+
+        verify(currencyRepository, never()).findCurrencyDetailsByCode(any());
+    }
+
+    @Test
+    void getCurrency_shouldReadThroughFromDatabase_whenStoredRatesAreFresh() {
+        readThroughProperties.setEnabled(true);
+        currencyService.warmUpExchangeRates();
+        CurrencyDetailsDto storedDto = getCurrencyDetailsDto(USD, EUR, LocalDateTime.now(ZoneOffset.UTC));
+
+        when(currencyRepository.findCurrencyDetailsByCode(USD)).thenReturn(Optional.of(storedDto));
+
+        CurrencyDetailsDto result = currencyService.getCurrency(USD);
+
+        assertThat(result.code()).isEqualTo(USD);
+        verify(exchangeRatesService, never()).fetchExchangeRates(any());
+        verify(currencyMetrics).recordReadThrough("database");
+    }
+
+    @Test
+    void getCurrency_shouldFetchAndStoreUnknownCurrency_whenReadThroughEnabled() {
+        readThroughProperties.setEnabled(true);
+        currencyService.warmUpExchangeRates();
+        ExchangeRatesResponse response = new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
+        CurrencyEntity entity = getCurrencyEntity();
+        CurrencyDetailsDto dto = getCurrencyDetailsDto(USD, EUR);
+
+        when(currencyRepository.findCurrencyDetailsByCode(USD)).thenReturn(Optional.empty());
+        when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(response));
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(entity);
+        when(currencyRepository.upsertAll(List.of(entity))).thenReturn(List.of(entity));
+        when(currencyConverter.toCurrencyDetailsDto(entity)).thenReturn(dto);
+
+        CurrencyDetailsDto result = currencyService.getCurrency(USD);
+
+        assertThat(result.code()).isEqualTo(USD);
+        assertThat(currencyService.getRatesSnapshot().currencies()).containsKey(USD);
+        verify(currencyChangeNotifier).notifyChanged(List.of(dto));
+        verify(currencyMetrics).recordReadThrough("upstream");
+    }
+
+    @Test
+    void getCurrency_shouldNotReadThrough_whenUnchangedRatesWereVerifiedByRefresh() throws Exception {
+        CurrencyDetailsDto cachedDto = getCurrencyDetailsDto(USD, EUR, LocalDateTime.now(ZoneOffset.UTC).minusHours(2));
+        ReflectionTestUtil.putDataToExchangeRates(Map.of(USD, cachedDto));
+        CurrencyEntity existingEntity = getCurrencyEntity();
+        existingEntity.setRatesHash("hash");
+        ExchangeRatesResponse response = new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE));
+
+        when(currencyRepository.getAllRatesHashes()).thenReturn(List.of(new CurrencyRatesHash(USD, "hash")));
+        when(exchangeRatesService.fetchExchangeRates(USD)).thenReturn(ResponseEntity.ok(response));
+        when(currencyConverter.toCurrencyEntity(response)).thenReturn(existingEntity);
+
+        currencyService.updateExchangeRates();
+        readThroughProperties.setEnabled(true);
+        readThroughProperties.setMemoryMaxAge(Duration.ofHours(1));
+        CurrencyDetailsDto result = currencyService.getCurrency(USD);
+
+        assertThat(result.updatedOn()).isEqualTo(cachedDto.updatedOn());
+        verify(currencyRepository, never()).findCurrencyDetailsByCode(any());
+    }
+
+    @Test
+    void getCurrency_shouldRememberCurrencyRejectedByUpstream() {
+        readThroughProperties.setEnabled(true);
+        currencyService.warmUpExchangeRates();
+
+        when(currencyRepository.findCurrencyDetailsByCode("XYZ")).thenReturn(Optional.empty());
+        when(exchangeRatesService.fetchExchangeRates("XYZ"))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        Assertions.assertThrows(NotFoundException.class, () -> currencyService.getCurrency("XYZ"));
+        verify(rejectedCurrencyCache).reject("XYZ");
+        verify(currencyRepository, never()).upsertAll(any());
+    }
+
+    @Test
+    void getCurrency_shouldNotRememberCurrency_whenUpstreamRejectsCredentials() {
+        readThroughProperties.setEnabled(true);
+        currencyService.warmUpExchangeRates();
+
+        when(currencyRepository.findCurrencyDetailsByCode(USD)).thenReturn(Optional.empty());
+        when(exchangeRatesService.fetchExchangeRates(USD))
+                .thenThrow(new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+
+        Assertions.assertThrows(NotFoundException.class, () -> currencyService.getCurrency(USD));
+        verify(rejectedCurrencyCache, never()).reject(any());
+        verify(currencyMetrics).recordReadThrough("failed");
+    }
+
+    @Test
+    void getCurrency_shouldNotAskUpstreamAgain_forRejectedCurrency() {
+        readThroughProperties.setEnabled(true);
+        currencyService.warmUpExchangeRates();
+
+        when(rejectedCurrencyCache.isRejected("XYZ")).thenReturn(true);
+
+        Assertions.assertThrows(NotFoundException.class, () -> currencyService.getCurrency("XYZ"));
+        verify(currencyRepository, never()).findCurrencyDetailsByCode(any());
+        verify(exchangeRatesService, never()).fetchExchangeRates(any());
+    }
+
+    @Test
+    void getCurrency_shouldServeStaleStoredCurrency_whenUpstreamIsUnavailable() {
+        readThroughProperties.setEnabled(true);
+        currencyService.warmUpExchangeRates();
+        CurrencyDetailsDto staleDto = getCurrencyDetailsDto(USD, EUR, LocalDateTime.now(ZoneOffset.UTC).minusHours(2));
+
+        when(currencyRepository.findCurrencyDetailsByCode(USD)).thenReturn(Optional.of(staleDto));
+        when(exchangeRatesService.fetchExchangeRates(USD))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        CurrencyDetailsDto result = currencyService.getCurrency(USD);
+
+        assertThat(result.updatedOn()).isEqualTo(staleDto.updatedOn());
+        verify(rejectedCurrencyCache, never()).reject(any());
+        verify(currencyMetrics).recordReadThrough("failed");
+    }
+
+    private void initExchangeRates(CurrencyDetailsDto currencyDetailsDto) {
+        when(currencyRepository.findCurrencyDetailsAfter(eq(""), any())).thenReturn(List.of(currencyDetailsDto));
+
+        currencyService.warmUpExchangeRates();
+    }
+
+    private static List<CurrencyRatesHash> getRatesHashes(String... currencyCodes) {
+        return Arrays.stream(currencyCodes)
+                .map(currencyCode -> new CurrencyRatesHash(currencyCode, null))
+                .toList();
     }
 
     private static CurrencyDetailsDto getCurrencyDetailsDto(String currencyCode,
@@ -179,11 +751,18 @@ class CurrencyServiceTest {
                 LocalDateTime.now());
     }
 
+    private static CurrencyDetailsDto getCurrencyDetailsDto(String currencyCode,
+                                                            String rateCurrencyCode,
+                                                            LocalDateTime updatedOn) {
+        return new CurrencyDetailsDto(currencyCode, Map.of(rateCurrencyCode, BigDecimal.ONE), updatedOn, updatedOn);
+    }
+
     private static CurrencyEntity getCurrencyEntity() {
         CurrencyEntity entity = new CurrencyEntity();
 
         entity.setCode(USD);
         entity.setRates(Map.of(EUR, BigDecimal.ONE));
+        entity.setRatesHash(RatesHash.of(entity.getRates()));
         entity.setCreatedOn(LocalDateTime.now());
         entity.setUpdatedOn(LocalDateTime.now());
 
@@ -192,6 +771,6 @@ class CurrencyServiceTest {
 
     @AfterEach
     public void clearExchangeRates() throws Exception {
-        ReflectionTestUtil.getExchangeRates().clear();
+        ReflectionTestUtil.clearExchangeRates();
     }
 }
@@ -0,0 +1,127 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.CrossRateProperties;
+import com.narektm.exchangeratesapi.config.ProvidersProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.exception.ExternalApiException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+@RestClientTest(EcbExchangeRatesService.class)
+@EnableConfigurationProperties({ProvidersProperties.class, CrossRateProperties.class})
+@Import(CrossRateCalculator.class)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class EcbExchangeRatesServiceTest {
+
+    private static final String ECB_URI = "https://www.ecb.europa.eu/stats/eurofxref/eurofxref-daily.xml";
+    // Friday, an hour after the publication of the rates of the day
+    private static final Instant PUBLISHED = Instant.parse("2024-12-20T16:00:00Z");
+    private static final String REFERENCE_RATES = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <gesmes:Envelope xmlns:gesmes="http://www.gesmes.org/xml/2002-08-01"
+                             xmlns="http://www.ecb.int/vocabulary/2002-08-01/eurofxref">
+                <gesmes:subject>Reference rates</gesmes:subject>
+                <Cube>
+                    <Cube time="2024-12-20">
+                        <Cube currency="USD" rate="1.0390"/>
+                        <Cube currency="GBP" rate="0.83000"/>
+                    </Cube>
+                </Cube>
+            </gesmes:Envelope>
+            """;
+
+    @Autowired
+    private MockRestServiceServer server;
+
+    @Autowired
+    private EcbExchangeRatesService service;
+
+    @Test
+    void fetchExchangeRates_shouldReturnReferenceRates_whenEuroRequested() {
+        server.expect(requestTo(ECB_URI)).andRespond(withSuccess(REFERENCE_RATES, MediaType.TEXT_XML));
+
+        ResponseEntity<ExchangeRatesResponse> response = service.fetchExchangeRates("EUR");
+
+        assertThat(response.getBody().baseCurrencyCode()).isEqualTo("EUR");
+        assertThat(response.getBody().rates())
+                .containsEntry("USD", new BigDecimal("1.0390"))
+                .containsEntry("GBP", new BigDecimal("0.83000"))
+                .containsEntry("EUR", BigDecimal.ONE);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldDeriveCrossRates_whenOtherBaseRequested() {
+        server.expect(requestTo(ECB_URI)).andRespond(withSuccess(REFERENCE_RATES, MediaType.TEXT_XML));
+
+        ResponseEntity<ExchangeRatesResponse> response = service.fetchExchangeRates("USD");
+
+        assertThat(response.getBody().baseCurrencyCode()).isEqualTo("USD");
+        assertThat(response.getBody().rates().get("USD")).isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(response.getBody().rates().get("GBP")).isEqualByComparingTo("0.7988450433");
+    }
+
+    @Test
+    void fetchExchangeRates_shouldDownloadReferenceRatesOnceUntilNextPublication() {
+        server.expect(ExpectedCount.once(), requestTo(ECB_URI))
+                .andRespond(withSuccess(REFERENCE_RATES, MediaType.TEXT_XML));
+
+        service.fetchExchangeRates("USD", PUBLISHED);
+        service.fetchExchangeRates("GBP", PUBLISHED.plus(Duration.ofHours(1)));
+        // still the weekend
+        ResponseEntity<ExchangeRatesResponse> response =
+                service.fetchExchangeRates("EUR", Instant.parse("2024-12-23T14:59:00Z"));
+
+        server.verify();
+        assertThat(response.getBody().rates()).containsEntry("USD", new BigDecimal("1.0390"));
+    }
+
+    @Test
+    void fetchExchangeRates_shouldDownloadAgain_whenNextPublicationIsDue() {
+        server.expect(ExpectedCount.twice(), requestTo(ECB_URI))
+                .andRespond(withSuccess(REFERENCE_RATES, MediaType.TEXT_XML));
+
+        service.fetchExchangeRates("USD", PUBLISHED);
+        service.fetchExchangeRates("USD", Instant.parse("2024-12-23T15:00:00Z"));
+
+        server.verify();
+    }
+
+    @Test
+    void fetchExchangeRates_shouldRetryAfterRetryInterval_whenRatesOfTheDayAreLate() {
+        Instant monday = Instant.parse("2024-12-23T15:30:00Z");
+        server.expect(ExpectedCount.twice(), requestTo(ECB_URI))
+                .andRespond(withSuccess(REFERENCE_RATES, MediaType.TEXT_XML));
+
+        service.fetchExchangeRates("USD", monday);
+        service.fetchExchangeRates("USD", monday.plus(Duration.ofMinutes(1)));
+        service.fetchExchangeRates("USD", monday.plus(Duration.ofMinutes(5)));
+
+        server.verify();
+    }
+
+    @Test
+    void fetchExchangeRates_shouldThrowExternalApiException_whenCurrencyNotQuoted() {
+        server.expect(requestTo(ECB_URI)).andRespond(withSuccess(REFERENCE_RATES, MediaType.TEXT_XML));
+
+        assertThatThrownBy(() -> service.fetchExchangeRates("ARS"))
+                .isInstanceOf(ExternalApiException.class)
+                .hasMessageContaining("ARS");
+    }
+}
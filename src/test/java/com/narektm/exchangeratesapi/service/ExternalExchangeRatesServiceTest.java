@@ -3,12 +3,15 @@ package com.narektm.exchangeratesapi.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.narektm.exchangeratesapi.config.ExternalExchangeRatesApiProperties;
+import com.narektm.exchangeratesapi.converter.CompactRateMap;
+import com.narektm.exchangeratesapi.converter.ExchangeRatesResponseParser;
 import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
 import com.narektm.exchangeratesapi.exception.ExternalApiException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -25,6 +28,7 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 
 @RestClientTest(ExternalExchangeRatesService.class)
 @EnableConfigurationProperties(ExternalExchangeRatesApiProperties.class)
+@Import(ExchangeRatesResponseParser.class)
 class ExternalExchangeRatesServiceTest {
 
     private static final String BASE_URI = "https://api.apilayer.com/exchangerates_data/latest?base=";
@@ -51,6 +55,7 @@ class ExternalExchangeRatesServiceTest {
         ResponseEntity<ExchangeRatesResponse> actualResponse = service.fetchExchangeRates(USD);
 
         assertThat(actualResponse.getBody()).isEqualTo(expectedResponse);
+        assertThat(actualResponse.getBody().rates()).isInstanceOf(CompactRateMap.class);
     }
 
     @Test
@@ -0,0 +1,149 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.ProvidersProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.metrics.CurrencyMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HedgedExchangeRatesServiceTest {
+
+    private static final String USD = "USD";
+    private static final String EUR = "EUR";
+
+    @Mock
+    private ExchangeRatesProvider primary;
+
+    @Mock
+    private ExchangeRatesProvider secondary;
+
+    @Mock
+    private CurrencyMetrics currencyMetrics;
+
+    private final ProvidersProperties properties = new ProvidersProperties();
+    private final CountDownLatch releasePrimary = new CountDownLatch(1);
+
+    private HedgedExchangeRatesService service;
+
+    @BeforeEach
+    void setUp() {
+        when(primary.getName()).thenReturn(ThrottledExchangeRatesService.NAME);
+        when(secondary.getName()).thenReturn(EcbExchangeRatesService.NAME);
+        properties.setOrder(List.of(ThrottledExchangeRatesService.NAME, EcbExchangeRatesService.NAME));
+        properties.setMinHedgeDelay(Duration.ofMillis(10));
+        properties.setMaxHedgeDelay(Duration.ofMillis(50));
+        service = new HedgedExchangeRatesService(List.of(secondary, primary), properties, currencyMetrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releasePrimary.countDown();
+        service.close();
+    }
+
+    @Test
+    void fetchExchangeRates_shouldReturnPrimaryAnswer_withoutAskingSecondary_whenPrimaryIsFast() {
+        when(primary.fetchExchangeRates(USD)).thenReturn(response(USD, "0.92"));
+
+        ResponseEntity<ExchangeRatesResponse> response = service.fetchExchangeRates(USD);
+
+        assertThat(response.getBody().rates()).containsEntry(EUR, new BigDecimal("0.92"));
+        verify(secondary, never()).fetchExchangeRates(anyString());
+        verify(currencyMetrics, never()).recordHedgedFetch(anyString());
+    }
+
+    @Test
+    void fetchExchangeRates_shouldReturnSecondaryAnswer_whenPrimaryExceedsHedgeDelay() {
+        when(primary.fetchExchangeRates(USD)).thenAnswer(invocation -> {
+            releasePrimary.await();
+            return response(USD, "0.92");
+        });
+        when(secondary.fetchExchangeRates(USD)).thenReturn(response(USD, "0.93"));
+
+        ResponseEntity<ExchangeRatesResponse> response = service.fetchExchangeRates(USD);
+
+        assertThat(response.getBody().rates()).containsEntry(EUR, new BigDecimal("0.93"));
+        verify(currencyMetrics).recordHedgedFetch(EcbExchangeRatesService.NAME);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldAskSecondaryAtOnce_whenPrimaryFails() {
+        properties.setMaxHedgeDelay(Duration.ofMinutes(1));
+        when(primary.fetchExchangeRates(USD)).thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        when(secondary.fetchExchangeRates(USD)).thenReturn(response(USD, "0.93"));
+
+        ResponseEntity<ExchangeRatesResponse> response = service.fetchExchangeRates(USD);
+
+        assertThat(response.getBody().rates()).containsEntry(EUR, new BigDecimal("0.93"));
+        verify(currencyMetrics, never()).recordHedgedFetch(anyString());
+    }
+
+    @Test
+    void fetchExchangeRates_shouldSkipInvalidAnswer() {
+        when(primary.fetchExchangeRates(USD)).thenReturn(response(EUR, "1.08"));
+        when(secondary.fetchExchangeRates(USD)).thenReturn(response(USD, "0.93"));
+
+        ResponseEntity<ExchangeRatesResponse> response = service.fetchExchangeRates(USD);
+
+        assertThat(response.getBody().baseCurrencyCode()).isEqualTo(USD);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldThrowPrimaryFailure_whenAllProvidersFail() {
+        HttpServerErrorException primaryFailure = new HttpServerErrorException(HttpStatus.BAD_GATEWAY);
+        when(primary.fetchExchangeRates(USD)).thenThrow(primaryFailure);
+        when(secondary.fetchExchangeRates(USD)).thenThrow(new IllegalStateException("ECB unavailable"));
+
+        assertThatThrownBy(() -> service.fetchExchangeRates(USD)).isSameAs(primaryFailure);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldRecordDisagreement_whenLateAnswerDeviates() {
+        when(primary.fetchExchangeRates(USD)).thenAnswer(invocation -> {
+            releasePrimary.await();
+            return response(USD, "0.50");
+        });
+        when(secondary.fetchExchangeRates(USD)).thenReturn(response(USD, "0.93"));
+
+        service.fetchExchangeRates(USD);
+        releasePrimary.countDown();
+
+        verify(currencyMetrics, timeout(1000))
+                .recordProviderDisagreement(EcbExchangeRatesService.NAME, ThrottledExchangeRatesService.NAME);
+    }
+
+    @Test
+    void constructor_shouldRejectUnknownProvider() {
+        properties.setOrder(List.of("unknown"));
+
+        assertThatThrownBy(() -> new HedgedExchangeRatesService(List.of(primary), properties, currencyMetrics))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("unknown");
+    }
+
+    private static ResponseEntity<ExchangeRatesResponse> response(String base, String eurRate) {
+        return ResponseEntity.ok(new ExchangeRatesResponse(base, Map.of(EUR, new BigDecimal(eurRate))));
+    }
+}
@@ -0,0 +1,64 @@
+package com.narektm.exchangeratesapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final String USD = "USD";
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_shouldShareInFlightCallBetweenConcurrentCallers() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<String> sharedResult = new AtomicReference<>();
+        Thread waitingCaller = new Thread(() -> sharedResult.set(singleFlight.execute(USD, () -> "unexpected")));
+
+        String result = singleFlight.execute(USD, () -> {
+            calls.incrementAndGet();
+            // the second caller joins the flight while the first call is still running
+            waitingCaller.start();
+            awaitWaiting(waitingCaller);
+            return "rates";
+        });
+        waitingCaller.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(result).isEqualTo("rates");
+        assertThat(sharedResult).hasValue("rates");
+        assertThat(calls).hasValue(1);
+        assertThat(singleFlight.isInFlight(USD)).isFalse();
+    }
+
+    @Test
+    void execute_shouldRunCallAgainOnceCompleted() {
+        AtomicInteger calls = new AtomicInteger();
+
+        singleFlight.execute(USD, () -> "rates-" + calls.incrementAndGet());
+        String result = singleFlight.execute(USD, () -> "rates-" + calls.incrementAndGet());
+
+        assertThat(result).isEqualTo("rates-2");
+    }
+
+    @Test
+    void execute_shouldPropagateExceptionAndReleaseKey() {
+        assertThatThrownBy(() -> singleFlight.execute(USD, () -> {
+            throw new IllegalStateException("API Error");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(singleFlight.isInFlight(USD)).isFalse();
+    }
+
+    private static void awaitWaiting(Thread thread) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.config.FetchThrottleProperties;
+import com.narektm.exchangeratesapi.dto.ExchangeRatesResponse;
+import com.narektm.exchangeratesapi.dto.UpstreamUsage;
+import com.narektm.exchangeratesapi.exception.ExternalApiException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ThrottledExchangeRatesServiceTest {
+
+    private static final String USD = "USD";
+    private static final String EUR = "EUR";
+
+    @Mock
+    private ExternalExchangeRatesService externalExchangeRatesService;
+
+    private final FetchThrottleProperties properties = new FetchThrottleProperties();
+    private final UpstreamUsageTracker upstreamUsageTracker = new UpstreamUsageTracker();
+
+    private ThrottledExchangeRatesService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.setRequestsPerSecond(1000);
+        properties.setBurst(100);
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(5));
+        properties.setCircuitBreakerFailureThreshold(2);
+        service = new ThrottledExchangeRatesService(externalExchangeRatesService, properties, upstreamUsageTracker);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldRetryServerErrorsAndReportUsage() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(ThrottledExchangeRatesService.REMAINING_MONTHLY_QUOTA, "950");
+        ResponseEntity<ExchangeRatesResponse> response =
+                new ResponseEntity<>(new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE)), headers, HttpStatus.OK);
+
+        when(externalExchangeRatesService.fetchExchangeRates(USD))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                        new HttpHeaders(), null, null))
+                .thenReturn(response);
+
+        try (UpstreamUsageTracker.Scope usageScope = upstreamUsageTracker.startScope()) {
+            assertThat(service.fetchExchangeRates(USD)).isSameAs(response);
+            assertThat(usageScope.getUsage()).isEqualTo(new UpstreamUsage(3, 2, 1, 0, 950L));
+        }
+    }
+
+    @Test
+    void fetchExchangeRates_shouldReportUsageOnlyToScopeOfItsOwnRun() throws Exception {
+        when(externalExchangeRatesService.fetchExchangeRates(USD))
+                .thenReturn(ResponseEntity.ok(new ExchangeRatesResponse(USD, Map.of(EUR, BigDecimal.ONE))));
+
+        AtomicLong otherRunRequests = new AtomicLong();
+
+        try (UpstreamUsageTracker.Scope usageScope = upstreamUsageTracker.startScope()) {
+            Thread otherRun = Thread.ofPlatform().start(() -> {
+                try (UpstreamUsageTracker.Scope otherScope = upstreamUsageTracker.startScope()) {
+                    service.fetchExchangeRates(USD);
+                    service.fetchExchangeRates(USD);
+                    otherRunRequests.set(otherScope.getUsage().requests());
+                }
+            });
+            otherRun.join();
+            service.fetchExchangeRates(USD);
+
+            assertThat(usageScope.getUsage().requests()).isEqualTo(1);
+        }
+        assertThat(otherRunRequests).hasValue(2);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldNotRetryClientErrors() {
+        when(externalExchangeRatesService.fetchExchangeRates(USD))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+
+        assertThatThrownBy(() -> service.fetchExchangeRates(USD)).isInstanceOf(HttpClientErrorException.class);
+        verify(externalExchangeRatesService).fetchExchangeRates(USD);
+    }
+
+    @Test
+    void fetchExchangeRates_shouldStopCallingUpstreamOnceCircuitIsOpen() {
+        when(externalExchangeRatesService.fetchExchangeRates(USD))
+                .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        try (UpstreamUsageTracker.Scope usageScope = upstreamUsageTracker.startScope()) {
+            for (int i = 0; i < properties.getCircuitBreakerFailureThreshold(); i++) {
+                assertThatThrownBy(() -> service.fetchExchangeRates(USD))
+                        .isInstanceOf(HttpServerErrorException.class);
+            }
+            assertThatThrownBy(() -> service.fetchExchangeRates(USD)).isInstanceOf(ExternalApiException.class);
+
+            verify(externalExchangeRatesService, times(properties.getCircuitBreakerFailureThreshold()
+                    * properties.getMaxAttempts())).fetchExchangeRates(USD);
+            assertThat(usageScope.getUsage().rejectedByCircuitBreaker()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void backoff_shouldHonorRetryAfterHeader() {
+        properties.setMaxBackoff(Duration.ofSeconds(10));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.RETRY_AFTER, "3");
+
+        Duration backoff = service.backoff(1, HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS,
+                "Too Many Requests", headers, null, null));
+
+        assertThat(backoff).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void backoff_shouldStayWithinExponentialCeiling() {
+        properties.setInitialBackoff(Duration.ofMillis(100));
+        properties.setMaxBackoff(Duration.ofMillis(300));
+        HttpServerErrorException exception = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.backoff(1, exception)).isLessThanOrEqualTo(Duration.ofMillis(100));
+            assertThat(service.backoff(5, exception)).isLessThanOrEqualTo(Duration.ofMillis(300));
+        }
+    }
+}
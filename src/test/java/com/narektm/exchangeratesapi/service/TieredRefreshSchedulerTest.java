@@ -0,0 +1,146 @@
+package com.narektm.exchangeratesapi.service;
+
+import com.narektm.exchangeratesapi.cache.RateMatrix;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cluster.RefreshLeaderElection;
+import com.narektm.exchangeratesapi.config.RefreshProperties;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TieredRefreshSchedulerTest {
+
+    private static final String USD = "USD";
+    private static final String AMD = "AMD";
+    private static final Instant START = Instant.parse("2026-10-18T00:00:00Z");
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private RefreshLeaderElection refreshLeaderElection;
+
+    @Mock
+    private CrossRateCalculator crossRateCalculator;
+
+    private final RefreshProperties refreshProperties = new RefreshProperties();
+
+    private TieredRefreshScheduler tieredRefreshScheduler;
+
+    @BeforeEach
+    void setUp() {
+        RefreshProperties.Tier majors = new RefreshProperties.Tier();
+        majors.setInterval(Duration.ofMinutes(1));
+        majors.setCurrencies(Set.of(USD));
+        refreshProperties.setTiers(Map.of("majors", majors));
+        refreshProperties.setDefaultInterval(Duration.ofHours(1));
+        refreshProperties.setTieredEnabled(true);
+        tieredRefreshScheduler = new TieredRefreshScheduler(currencyService, refreshProperties, refreshLeaderElection,
+                crossRateCalculator);
+    }
+
+    @Test
+    void refreshDueCurrencies_shouldRefreshEveryCurrencyOncePerIntervalOfItsTier() {
+        when(currencyService.getRatesSnapshot()).thenReturn(getRatesSnapshot(USD, AMD));
+
+        List<Set<String>> refreshes = tickEvery(Duration.ofSeconds(10), Duration.ofHours(2));
+
+        assertThat(refreshes.stream().filter(codes -> codes.contains(USD))).hasSizeBetween(119, 121);
+        assertThat(refreshes.stream().filter(codes -> codes.contains(AMD))).hasSizeBetween(1, 2);
+    }
+
+    @Test
+    void refreshDueCurrencies_shouldSpreadFirstRefreshesOverInterval() {
+        List<String> codes = Stream.iterate(0, i -> i + 1).limit(26 * 26)
+                .map(i -> "X" + (char) ('A' + i / 26) + (char) ('A' + i % 26))
+                .toList();
+        when(currencyService.getRatesSnapshot()).thenReturn(getRatesSnapshot(codes.toArray(String[]::new)));
+
+        List<Set<String>> refreshes = tickEvery(Duration.ofMinutes(10), Duration.ofMinutes(70));
+
+        assertThat(refreshes.stream().mapToInt(Set::size).sum()).isEqualTo(codes.size());
+        assertThat(refreshes).hasSizeGreaterThanOrEqualTo(5)
+                .allSatisfy(refreshedCodes -> assertThat(refreshedCodes.size()).isLessThan(codes.size() / 3));
+    }
+
+    @Test
+    void refreshDueCurrencies_shouldFetchPivotAtMostOncePerShortestInterval_whenCrossRatesEnabled() {
+        List<String> codes = Stream.concat(Stream.of(USD), Stream.iterate(0, i -> i + 1).limit(26 * 26)
+                        .map(i -> "X" + (char) ('A' + i / 26) + (char) ('A' + i % 26)))
+                .toList();
+        when(currencyService.getRatesSnapshot()).thenReturn(getRatesSnapshot(codes.toArray(String[]::new)));
+        when(crossRateCalculator.isEnabled()).thenReturn(true);
+
+        // every refresh fetches the pivot rates once
+        List<Set<String>> refreshes = tickEvery(Duration.ofSeconds(10), Duration.ofHours(1));
+
+        assertThat(refreshes).hasSizeBetween(60, 61);
+        assertThat(refreshes.stream().filter(refreshedCodes -> refreshedCodes.contains(USD))).hasSizeBetween(60, 61);
+        assertThat(refreshes.stream().filter(refreshedCodes -> refreshedCodes.contains("XAA"))).hasSize(1);
+    }
+
+    @Test
+    void refreshDueCurrencies_shouldDoNothingWhenDisabled() {
+        refreshProperties.setTieredEnabled(false);
+
+        tieredRefreshScheduler.refreshDueCurrencies();
+
+        verify(currencyService, never()).updateExchangeRates(any(Set.class));
+    }
+
+    @Test
+    void refreshDueCurrencies_shouldDoNothingWhenNotLeader() {
+        when(refreshLeaderElection.isLeader()).thenReturn(false);
+
+        tieredRefreshScheduler.refreshDueCurrencies();
+
+        verify(currencyService, never()).getRatesSnapshot();
+        verify(currencyService, never()).updateExchangeRates(any(Set.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Set<String>> tickEvery(Duration tick, Duration duration) {
+        for (Instant now = START; now.isBefore(START.plus(duration)); now = now.plus(tick)) {
+            tieredRefreshScheduler.refreshDueCurrencies(now);
+        }
+        ArgumentCaptor<Set<String>> captor = ArgumentCaptor.forClass(Set.class);
+        verify(currencyService, atLeastOnce()).updateExchangeRates(captor.capture());
+
+        return captor.getAllValues().stream()
+                .map(HashSet::new)
+                .collect(Collectors.toList());
+    }
+
+    private static RatesSnapshot getRatesSnapshot(String... currencyCodes) {
+        Map<String, CurrencyDetailsDto> currencies = Stream.of(currencyCodes)
+                .collect(Collectors.toMap(code -> code, code -> new CurrencyDetailsDto(code,
+                        Map.of(code, BigDecimal.ONE),
+                        LocalDateTime.now(),
+                        LocalDateTime.now())));
+
+        return new RatesSnapshot(1, Instant.now(), currencies, RateMatrix.empty(), Map.of(), null);
+    }
+}
@@ -0,0 +1,34 @@
+package com.narektm.exchangeratesapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final TokenBucket tokenBucket = new TokenBucket(2, 4, nanoTime::get);
+
+    @Test
+    void tryAcquire_shouldAllowBurstThenWaitForRefill() {
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(250));
+
+        assertThat(tokenBucket.tryAcquire()).isZero();
+    }
+
+    @Test
+    void tryAcquire_shouldNotRefillBeyondCapacity() {
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isZero();
+        assertThat(tokenBucket.tryAcquire()).isPositive();
+    }
+}
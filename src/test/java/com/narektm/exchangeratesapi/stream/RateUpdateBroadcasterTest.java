@@ -0,0 +1,123 @@
+package com.narektm.exchangeratesapi.stream;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cache.RatesSnapshotFactory;
+import com.narektm.exchangeratesapi.config.StreamProperties;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.dto.RateDelta;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateUpdateBroadcasterTest {
+
+    private static final String USD = "USD";
+    private static final String EUR = "EUR";
+    private static final String GBP = "GBP";
+
+    private final StreamProperties streamProperties = new StreamProperties();
+    private final RateUpdateBroadcaster rateUpdateBroadcaster =
+            new RateUpdateBroadcaster(streamProperties, Runnable::run);
+    private final RatesSnapshotFactory ratesSnapshotFactory =
+            new RatesSnapshotFactory(new CurrencyResponseEncoder(JsonMapper.builder().findAndAddModules().build()));
+
+    @Test
+    void subscribe_shouldSendCurrentRatesFirst() {
+        RatesSnapshot ratesSnapshot = publish(ratesSnapshotFactory.empty(), usd("0.9", "0.8"));
+        CapturingEmitter emitter = new CapturingEmitter();
+
+        rateUpdateBroadcaster.subscribe(emitter, Set.of(USD), Map.of(), () -> ratesSnapshot);
+
+        assertThat(emitter.rateDeltas).singleElement()
+                .satisfies(rateDelta -> assertThat(rateDelta.rates()).containsOnlyKeys(EUR, GBP));
+    }
+
+    @Test
+    void subscribe_shouldReadCurrentRatesOnceRegistered() {
+        RatesSnapshot ratesSnapshot = publish(ratesSnapshotFactory.empty(), usd("0.9", "0.8"));
+        List<Integer> subscriberCounts = new ArrayList<>();
+
+        rateUpdateBroadcaster.subscribe(new CapturingEmitter(), Set.of(USD), Map.of(), () -> {
+            subscriberCounts.add(rateUpdateBroadcaster.getSubscriberCount());
+            return ratesSnapshot;
+        });
+
+        assertThat(subscriberCounts).containsExactly(1);
+    }
+
+    @Test
+    void broadcast_shouldSendOnlyChangedRates() {
+        RatesSnapshot previous = publish(ratesSnapshotFactory.empty(), usd("0.9", "0.8"));
+        CapturingEmitter emitter = new CapturingEmitter();
+        rateUpdateBroadcaster.subscribe(emitter, Set.of(USD), Map.of(), () -> previous);
+        emitter.rateDeltas.clear();
+
+        RatesSnapshot current = publish(previous, usd("0.9", "0.7"));
+        rateUpdateBroadcaster.broadcast(previous, current, List.of(USD));
+
+        assertThat(emitter.rateDeltas).singleElement().satisfies(rateDelta -> {
+            assertThat(rateDelta.version()).isEqualTo(current.version());
+            assertThat(rateDelta.rates()).containsOnlyKeys(GBP);
+        });
+    }
+
+    @Test
+    void broadcast_shouldSendOnlySubscribedPairs() {
+        RatesSnapshot previous = publish(ratesSnapshotFactory.empty(), usd("0.9", "0.8"));
+        CapturingEmitter emitter = new CapturingEmitter();
+        rateUpdateBroadcaster.subscribe(emitter, Set.of(), Map.of(USD, Set.of(EUR)), () -> previous);
+        emitter.rateDeltas.clear();
+
+        rateUpdateBroadcaster.broadcast(previous, publish(previous, usd("0.9", "0.7")), List.of(USD));
+
+        assertThat(emitter.rateDeltas).isEmpty();
+    }
+
+    @Test
+    void broadcast_shouldDisconnectSubscriberThatFellBehind() {
+        streamProperties.setMaxPendingEvents(1);
+        RatesSnapshot previous = publish(ratesSnapshotFactory.empty(), usd("0.9", "0.8"));
+        // never runs the sends, so the events pile up
+        RateUpdateBroadcaster stalledBroadcaster = new RateUpdateBroadcaster(streamProperties, task -> {
+        });
+        stalledBroadcaster.subscribe(new CapturingEmitter(), Set.of(USD), Map.of(), () -> previous);
+
+        stalledBroadcaster.broadcast(previous, publish(previous, usd("0.9", "0.7")), List.of(USD));
+
+        assertThat(stalledBroadcaster.getSubscriberCount()).isZero();
+    }
+
+    private RatesSnapshot publish(RatesSnapshot previous, CurrencyDetailsDto currencyDetailsDto) {
+        return ratesSnapshotFactory.merge(previous, List.of(currencyDetailsDto));
+    }
+
+    private static CurrencyDetailsDto usd(String eurRate, String gbpRate) {
+        return new CurrencyDetailsDto(USD,
+                Map.of(EUR, new BigDecimal(eurRate), GBP, new BigDecimal(gbpRate)),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+    }
+
+    private static class CapturingEmitter extends SseEmitter {
+
+        private final List<RateDelta> rateDeltas = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            builder.build().stream()
+                    .filter(dataWithMediaType -> dataWithMediaType.getData() instanceof RateDelta)
+                    .forEach(dataWithMediaType -> rateDeltas.add((RateDelta) dataWithMediaType.getData()));
+        }
+    }
+}
@@ -1,26 +1,39 @@
 package com.narektm.exchangeratesapi.testutils;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cache.RatesSnapshotFactory;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
 import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
 import com.narektm.exchangeratesapi.service.CurrencyService;
 
 import java.lang.reflect.Field;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ReflectionTestUtil {
 
-    @SuppressWarnings("unchecked")
+    private static final RatesSnapshotFactory RATES_SNAPSHOT_FACTORY =
+            new RatesSnapshotFactory(new CurrencyResponseEncoder(JsonMapper.builder().findAndAddModules().build()));
+
     public static void putDataToExchangeRates(Map<String, CurrencyDetailsDto> exchangeRates) throws Exception {
-        Field field = CurrencyService.class.getDeclaredField("EXCHANGE_RATES");
-        field.setAccessible(true);
-        var exchangeRateMap = (Map<String, CurrencyDetailsDto>) field.get(null);
-        exchangeRateMap.putAll(exchangeRates);
+        AtomicReference<RatesSnapshot> ratesSnapshot = getRatesSnapshotReference();
+        ratesSnapshot.set(RATES_SNAPSHOT_FACTORY.merge(ratesSnapshot.get(), exchangeRates.values()));
     }
 
-    @SuppressWarnings("unchecked")
     public static Map<String, CurrencyDetailsDto> getExchangeRates() throws Exception {
+        return getRatesSnapshotReference().get().currencies();
+    }
+
+    public static void clearExchangeRates() throws Exception {
+        getRatesSnapshotReference().set(RATES_SNAPSHOT_FACTORY.empty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AtomicReference<RatesSnapshot> getRatesSnapshotReference() throws Exception {
         Field field = CurrencyService.class.getDeclaredField("EXCHANGE_RATES");
         field.setAccessible(true);
 
-        return (Map<String, CurrencyDetailsDto>) field.get(null);
+        return (AtomicReference<RatesSnapshot>) field.get(null);
     }
 }
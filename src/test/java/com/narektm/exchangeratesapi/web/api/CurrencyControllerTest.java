@@ -1,30 +1,57 @@
 package com.narektm.exchangeratesapi.web.api;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cache.RatesSnapshotFactory;
+import com.narektm.exchangeratesapi.config.BulkReadProperties;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
 import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
-import com.narektm.exchangeratesapi.dto.CurrencySummaryDto;
 import com.narektm.exchangeratesapi.service.CurrencyService;
+import com.narektm.exchangeratesapi.service.RateHistoryService;
+import com.narektm.exchangeratesapi.web.model.AddCurrenciesRequest;
 import com.narektm.exchangeratesapi.web.model.AddCurrencyRequest;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.IntStream;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CurrencyController.class)
+@EnableConfigurationProperties(BulkReadProperties.class)
+@Import(CurrencyResponseEncoder.class)
 class CurrencyControllerTest {
 
     private static final String BASE_URL = "/api/v1.0/currencies";
@@ -38,33 +65,98 @@ class CurrencyControllerTest {
     @MockBean
     private CurrencyService currencyService;
 
+    @MockBean
+    private RateHistoryService rateHistoryService;
+
     @Test
     void getAllCurrencies_shouldReturnCurrencySummaryDtos() throws Exception {
-        Set<CurrencySummaryDto> mockCurrencies =
-                Set.of(new CurrencySummaryDto("EUR"), new CurrencySummaryDto("USD"));
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto("EUR", "USD"), getMockDto("USD", "EUR"));
 
-        when(currencyService.getAllCurrencies()).thenReturn(mockCurrencies);
+        when(currencyService.getRatesSnapshot()).thenReturn(ratesSnapshot);
 
         mockMvc.perform(get(BASE_URL))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ratesSnapshot.encodedCurrencyList().eTag()))
+                .andExpect(header().string(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version())))
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$").isNotEmpty());
+                .andExpect(jsonPath("$[*].code").value(containsInAnyOrder("EUR", "USD")));
 
-        verify(currencyService).getAllCurrencies();
+        verify(currencyService).getRatesSnapshot();
     }
 
     @Test
     void getCurrency_shouldReturnCurrencyDetailsDto() throws Exception {
         String currencyCode = "USD";
-        CurrencyDetailsDto mockDto = getMockDto(currencyCode, "EUR");
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto(currencyCode, "EUR"));
 
-        when(currencyService.getCurrency(currencyCode)).thenReturn(mockDto);
+        when(currencyService.getRatesSnapshot(currencyCode)).thenReturn(ratesSnapshot);
 
         mockMvc.perform(get(BASE_URL + "/" + currencyCode))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ratesSnapshot.getEncodedCurrency(currencyCode).eTag()))
+                .andExpect(header().string(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version())))
                 .andExpect(jsonPath("$.code").value(currencyCode));
 
-        verify(currencyService).getCurrency(currencyCode);
+        verify(currencyService).getRatesSnapshot(currencyCode);
+    }
+
+    @Test
+    void getCurrency_shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        String currencyCode = "USD";
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto(currencyCode, "EUR"));
+
+        when(currencyService.getRatesSnapshot(currencyCode)).thenReturn(ratesSnapshot);
+
+        mockMvc.perform(get(BASE_URL + "/" + currencyCode)
+                        .header(HttpHeaders.IF_NONE_MATCH, ratesSnapshot.getEncodedCurrency(currencyCode).eTag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getCurrency_shouldReturnGzippedBodyWhenAccepted() throws Exception {
+        String currencyCode = "USD";
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto(currencyCode, "EUR"));
+        String eTag = ratesSnapshot.getEncodedCurrency(currencyCode).eTag();
+
+        when(currencyService.getRatesSnapshot(currencyCode)).thenReturn(ratesSnapshot);
+
+        mockMvc.perform(get(BASE_URL + "/" + currencyCode)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag.substring(0, eTag.length() - 1) + "-gzip\""))
+                .andExpect(content().bytes(ratesSnapshot.getEncodedCurrency(currencyCode).gzippedJson()));
+    }
+
+    @Test
+    void getCurrency_shouldReturnIdentityBodyWhenGzipIsRefused() throws Exception {
+        String currencyCode = "USD";
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto(currencyCode, "EUR"));
+
+        when(currencyService.getRatesSnapshot(currencyCode)).thenReturn(ratesSnapshot);
+
+        mockMvc.perform(get(BASE_URL + "/" + currencyCode)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.ETAG, ratesSnapshot.getEncodedCurrency(currencyCode).eTag()))
+                .andExpect(content().bytes(ratesSnapshot.getEncodedCurrency(currencyCode).json()));
+    }
+
+    @Test
+    void getCurrency_shouldReturnCompactCborWhenAccepted() throws Exception {
+        String currencyCode = "USD";
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto(currencyCode, "EUR"));
+        String eTag = ratesSnapshot.getEncodedCurrency(currencyCode).eTag();
+
+        when(currencyService.getRatesSnapshot(currencyCode)).thenReturn(ratesSnapshot);
+
+        mockMvc.perform(get(BASE_URL + "/" + currencyCode)
+                        .header(HttpHeaders.ACCEPT, "application/cbor, application/json;q=0.5"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, eTag.substring(0, eTag.length() - 1) + "-cbor\""))
+                .andExpect(content().bytes(ratesSnapshot.getEncodedCurrency(currencyCode).cbor()));
     }
 
     @Test
@@ -83,6 +175,121 @@ class CurrencyControllerTest {
         verify(currencyService).addCurrency(request);
     }
 
+    @Test
+    void getCurrencies_shouldReturnGivenCurrenciesWithGivenQuotes() throws Exception {
+        CurrencyDetailsDto usd = new CurrencyDetailsDto("USD",
+                Map.of("EUR", BigDecimal.ONE, "GBP", BigDecimal.TEN),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(usd, getMockDto("EUR", "GBP"), getMockDto("GBP", "USD"));
+
+        when(currencyService.getRatesSnapshot(Set.of("USD", "EUR"))).thenReturn(ratesSnapshot);
+
+        mockMvc.perform(get(BASE_URL).param("codes", "USD,EUR").param("quotes", "GBP"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version())))
+                .andExpect(jsonPath("$[*].code").value(containsInAnyOrder("USD", "EUR")))
+                .andExpect(jsonPath("$[?(@.code == 'USD')].rates.GBP").value(10))
+                .andExpect(jsonPath("$[?(@.code == 'USD')].rates.EUR").isEmpty());
+    }
+
+    @Test
+    void getCurrencies_shouldJoinPreEncodedCurrenciesAndAnswerNotModified() throws Exception {
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto("USD", "EUR"), getMockDto("EUR", "USD"));
+
+        when(currencyService.getRatesSnapshot(Set.of("USD", "EUR"))).thenReturn(ratesSnapshot);
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL).param("codes", "USD,EUR"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[*].code").value(containsInAnyOrder("USD", "EUR")))
+                .andReturn();
+
+        mockMvc.perform(get(BASE_URL).param("codes", "USD,EUR")
+                        .header(HttpHeaders.IF_NONE_MATCH, mvcResult.getResponse().getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getCurrencies_shouldReturnGzippedBodyWhenAccepted() throws Exception {
+        RatesSnapshot ratesSnapshot = getRatesSnapshot(getMockDto("USD", "EUR"));
+
+        when(currencyService.getRatesSnapshot(Set.of("USD"))).thenReturn(ratesSnapshot);
+
+        mockMvc.perform(get(BASE_URL).param("codes", "USD").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void getCurrencies_shouldReturnBadRequestWhenTooManyCodesAreGiven() throws Exception {
+        String codes = String.join(",", IntStream.range(0, 51)
+                .mapToObj(i -> "X" + (char) ('A' + i / 26) + (char) ('A' + i % 26))
+                .toList());
+
+        mockMvc.perform(get(BASE_URL).param("codes", codes))
+                .andExpect(status().isBadRequest());
+
+        verify(currencyService, never()).getRatesSnapshot(anyCollection());
+    }
+
+    @Test
+    void addCurrencies_shouldReturnAddedCurrencyDetailsDtos() throws Exception {
+        AddCurrenciesRequest request = new AddCurrenciesRequest(List.of("GBP", "CHF"));
+
+        when(currencyService.addCurrencies(request))
+                .thenReturn(List.of(getMockDto("GBP", "USD"), getMockDto("CHF", "USD")));
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[*].code").value(containsInAnyOrder("GBP", "CHF")));
+    }
+
+    @Test
+    void getHistory_shouldStreamHistoryOfCurrency() throws Exception {
+        LocalDate from = LocalDate.of(2026, 1, 1);
+        LocalDate to = LocalDate.of(2026, 1, 31);
+        String history = "[{\"date\":\"2026-01-02\",\"quote\":\"EUR\",\"rate\":0.92}]";
+
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(4).write(history.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(rateHistoryService).writeHistory(eq("USD"), eq("EUR"), eq(from), eq(to), any());
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/USD/history")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("quote", "EUR"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].date").value("2026-01-02"))
+                .andExpect(jsonPath("$[0].rate").value(0.92));
+    }
+
+    @Test
+    void getHistory_shouldReturnBadRequestWhenRangeIsReversed() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/USD/history")
+                        .param("from", "2026-02-01")
+                        .param("to", "2026-01-01"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(rateHistoryService);
+    }
+
+    private RatesSnapshot getRatesSnapshot(CurrencyDetailsDto... currencyDetailsDtos) {
+        RatesSnapshotFactory ratesSnapshotFactory =
+                new RatesSnapshotFactory(new CurrencyResponseEncoder(objectMapper));
+
+        return ratesSnapshotFactory.merge(ratesSnapshotFactory.empty(), List.of(currencyDetailsDtos));
+    }
+
     private static CurrencyDetailsDto getMockDto(String baseCurrencyCode, String rateCurrencyCode) {
         return new CurrencyDetailsDto(baseCurrencyCode,
                 Map.of(rateCurrencyCode, BigDecimal.ONE),
@@ -0,0 +1,120 @@
+package com.narektm.exchangeratesapi.web.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.narektm.exchangeratesapi.cache.RatesSnapshot;
+import com.narektm.exchangeratesapi.cache.RatesSnapshotFactory;
+import com.narektm.exchangeratesapi.converter.CurrencyResponseEncoder;
+import com.narektm.exchangeratesapi.dto.CurrencyDetailsDto;
+import com.narektm.exchangeratesapi.service.CurrencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RateController.class)
+class RateControllerTest {
+
+    private static final String USD = "USD";
+    private static final String EUR = "EUR";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private CurrencyService currencyService;
+
+    private RatesSnapshot ratesSnapshot;
+
+    @BeforeEach
+    void setUpRatesSnapshot() {
+        RatesSnapshotFactory ratesSnapshotFactory =
+                new RatesSnapshotFactory(new CurrencyResponseEncoder(objectMapper));
+        CurrencyDetailsDto currencyDetailsDto = new CurrencyDetailsDto(USD,
+                Map.of(EUR, new BigDecimal("0.8")),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+        ratesSnapshot = ratesSnapshotFactory.merge(ratesSnapshotFactory.empty(), List.of(currencyDetailsDto));
+
+        when(currencyService.getRatesSnapshot()).thenReturn(ratesSnapshot);
+        when(currencyService.getRatesSnapshot(USD)).thenReturn(ratesSnapshot);
+    }
+
+    @Test
+    void getExchangeRate_shouldReturnRate() throws Exception {
+        mockMvc.perform(get("/api/v1.0/rates/USD/EUR"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version())))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(content().string("0.8"));
+    }
+
+    @Test
+    void getExchangeRate_shouldReturnExactRateAsPlainNumber() throws Exception {
+        CurrencyDetailsDto currencyDetailsDto = new CurrencyDetailsDto(USD,
+                Map.of("IDR", new BigDecimal("16234.123456789012"), "BTC", new BigDecimal("0.000010471234")),
+                LocalDateTime.now(),
+                LocalDateTime.now());
+        RatesSnapshotFactory ratesSnapshotFactory = new RatesSnapshotFactory(new CurrencyResponseEncoder(objectMapper));
+        RatesSnapshot preciseRatesSnapshot =
+                ratesSnapshotFactory.merge(ratesSnapshotFactory.empty(), List.of(currencyDetailsDto));
+
+        when(currencyService.getRatesSnapshot(USD)).thenReturn(preciseRatesSnapshot);
+
+        mockMvc.perform(get("/api/v1.0/rates/USD/IDR"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("16234.123456789012"));
+        mockMvc.perform(get("/api/v1.0/rates/USD/BTC"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0.000010471234"));
+    }
+
+    @Test
+    void convert_shouldReturnConvertedAmount() throws Exception {
+        mockMvc.perform(get("/api/v1.0/convert")
+                        .param("from", USD)
+                        .param("to", EUR)
+                        .param("amount", "100"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version())))
+                .andExpect(content().string("80.0"));
+    }
+
+    @Test
+    void exportRates_shouldStreamRatesAsCsv() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/api/v1.0/rates/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(header().string(ApiHeaders.RATES_VERSION, String.valueOf(ratesSnapshot.version())))
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("base,quote,rate\nUSD,EUR,0.8\n"));
+    }
+
+    @Test
+    void exportRates_shouldReturnBadRequestForUnknownFormat() throws Exception {
+        mockMvc.perform(get("/api/v1.0/rates/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+}